@@ -5,11 +5,13 @@ import com.ecommerce.ecommerce.api.dto.common.ApiResponse;
 import com.ecommerce.ecommerce.core.domain.entity.User;
 import com.ecommerce.ecommerce.core.exception.BusinessException;
 import com.ecommerce.ecommerce.core.exception.ErrorCode;
+import com.ecommerce.ecommerce.core.service.CartItemService;
 import com.ecommerce.ecommerce.core.service.TokenBlacklistService;
 import com.ecommerce.ecommerce.core.service.UserService;
 import com.ecommerce.ecommerce.core.service.UserServiceProvider;
 import com.ecommerce.ecommerce.integration.service.EmailService;
 import com.ecommerce.ecommerce.util.CookieUtil;
+import com.ecommerce.ecommerce.util.GuestCartCookie;
 import com.ecommerce.ecommerce.util.JwtUtil;
 import jakarta.annotation.security.PermitAll;
 import jakarta.servlet.http.Cookie;
@@ -54,12 +56,16 @@ public class AuthController {
     private final JwtUtil jwtUtil;
     private final EmailService emailService;
     private final TokenBlacklistService blacklistService;
+    private final CartItemService cartItemService;
+    private final GuestCartCookie guestCartCookie;
     /**
      * Register a new user account
      */
     @PostMapping("/register")
     @PermitAll
-    public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request, HttpServletResponse servletResponse) {
+    public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request,
+                                                              @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+                                                              HttpServletResponse servletResponse) {
         log.info("Processing registration request for: {}", request.getEmail());
 
         User user = userService.registerUser(
@@ -80,6 +86,7 @@ public class AuthController {
         HttpHeaders header = new HttpHeaders();
         header.add(HttpHeaders.SET_COOKIE,accessTokenCookie.toString());
         header.add(HttpHeaders.SET_COOKIE,refreshTokenCookie.toString());
+        mergeGuestCart(guestToken, user.getId(), header);
         AuthResponse response = AuthResponse.builder()
                 .user(mapToUserInfo(user))
                 .build();
@@ -94,7 +101,9 @@ public class AuthController {
      */
     @PostMapping("/login")
     @PermitAll
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request, HttpServletResponse servletResponse) {
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                           @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+                                                           HttpServletResponse servletResponse) {
         log.info("Processing login request for: {}", request.getEmailOrUsername());
 
         // Authenticate user
@@ -113,12 +122,14 @@ public class AuthController {
         // Get user info
         Optional<User> userOpt = userService.findByEmailOrUsername(userDetails.getUsername());
         User user = userOpt.orElseThrow(() -> new RuntimeException("User not found"));
+        cartItemService.reconcileOnLogin(user.getId());
 
         ResponseCookie refreshTokenCookie = CookieUtil.addRefreshTokenToCookie(refreshToken);
         ResponseCookie accessTokenCookie = CookieUtil.addAccessTokenToCookie(accessToken);
         HttpHeaders header = new HttpHeaders();
         header.add(HttpHeaders.SET_COOKIE,accessTokenCookie.toString());
         header.add(HttpHeaders.SET_COOKIE,refreshTokenCookie.toString());
+        mergeGuestCart(guestToken, user.getId(), header);
         AuthResponse response = AuthResponse.builder()
                 .user(mapToUserInfo(user))
                 .build();
@@ -254,6 +265,26 @@ public class AuthController {
     /**
      * Map User entity to UserInfo DTO
      */
+    /**
+     * Merge the visitor's guest cart into their own cart and expire the guest cookie.
+     * A failed merge does not fail the authentication; the guest cart is kept for the next login.
+     */
+    private void mergeGuestCart(String guestToken, Long userId, HttpHeaders header) {
+        if (guestToken == null) {
+            return;
+        }
+        Optional<String> guestId = guestCartCookie.verify(guestToken);
+        if (guestId.isPresent()) {
+            try {
+                cartItemService.mergeGuestCart(guestId.get(), userId);
+            } catch (RuntimeException e) {
+                log.warn("Could not merge guest cart into cart of user {}: {}", userId, e.getMessage());
+                return;
+            }
+        }
+        header.add(HttpHeaders.SET_COOKIE, guestCartCookie.delete().toString());
+    }
+
     private UserInfo mapToUserInfo(User user) {
         return UserInfo.builder()
                 .id(user.getId())
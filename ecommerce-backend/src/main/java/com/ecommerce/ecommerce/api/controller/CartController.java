@@ -2,22 +2,34 @@ package com.ecommerce.ecommerce.api.controller;
 
 import com.ecommerce.ecommerce.api.dto.cart.AddToCartRequest;
 import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartPricingResponse;
 import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartSummaryResponse;
 import com.ecommerce.ecommerce.api.dto.cart.UpdateCartItemRequest;
 import com.ecommerce.ecommerce.api.dto.common.ApiResponse;
 import com.ecommerce.ecommerce.api.dto.product.ProductVariantDTO;
 import com.ecommerce.ecommerce.core.service.CartItemService;
+import com.ecommerce.ecommerce.core.service.CartSummaryService;
 import com.ecommerce.ecommerce.core.service.UserService;
+import com.ecommerce.ecommerce.util.GuestCartCookie;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+/**
+ * Shopping cart endpoints. Anonymous visitors get a guest cart identified by a signed cookie,
+ * which is merged into their own cart when they log in.
+ */
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
@@ -26,10 +38,15 @@ public class CartController {
 
     private final CartItemService cartItemService;
     private final UserService userService;
+    private final GuestCartCookie guestCartCookie;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<CartResponse>> getCart(Authentication authentication) {
-        CartResponse response = cartItemService.getCartForUser(authentication);
+    public ResponseEntity<ApiResponse<CartResponse>> getCart(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication) {
+        CartResponse response = isGuest(authentication)
+                ? cartItemService.getGuestCart(guestId(guestToken))
+                : cartItemService.getCartForUser(authentication);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart retrieved successfully", response));
     }
 
@@ -37,57 +54,145 @@ public class CartController {
     public ResponseEntity<ApiResponse<CartItemResponse>> addToCart(
             @Valid @RequestBody AddToCartRequest request,
             @RequestParam(required = false) ProductVariantDTO productVariantDTO,
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
             Authentication authentication) {
+        if (isGuest(authentication)) {
+            String guestId = guestCartCookie.verify(guestToken).orElseGet(guestCartCookie::newGuestId);
+            CartItemResponse response = cartItemService.addToGuestCart(guestId, request, productVariantDTO);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, guestCartCookie.create(guestId).toString())
+                    .body(ApiResponse.success(HttpStatus.OK.value(), "Item added to cart successfully", response));
+        }
         CartItemResponse response = cartItemService.addToCart(request, productVariantDTO, authentication);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Item added to cart successfully", response));
     }
 
     @PutMapping("/item/{itemId}")
     public ResponseEntity<ApiResponse<CartItemResponse>> updateCartItem(
-            @PathVariable Long itemId,
+            @PathVariable String itemId,
             @Valid @RequestBody UpdateCartItemRequest request,
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
             Authentication authentication) {
-        CartItemResponse response = cartItemService.updateCartItem(itemId, request, authentication);
+        CartItemResponse response = isGuest(authentication)
+                ? cartItemService.updateGuestCartItem(guestId(guestToken), itemId, request)
+                : cartItemService.updateCartItem(itemId, request, authentication);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart item updated successfully", response));
     }
 
     @DeleteMapping("/item/{itemId}")
     public ResponseEntity<ApiResponse<String>> removeFromCart(
-            @PathVariable Long itemId,
+            @PathVariable String itemId,
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
             Authentication authentication) {
-        cartItemService.removeFromCart(itemId, authentication);
+        if (isGuest(authentication)) {
+            cartItemService.removeFromGuestCart(guestId(guestToken), itemId);
+        } else {
+            cartItemService.removeFromCart(itemId, authentication);
+        }
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Item removed from cart successfully", "Item removed successfully"));
     }
 
     @DeleteMapping
-    public ResponseEntity<ApiResponse<String>> clearCart(Authentication authentication) {
-        cartItemService.clearCart(authentication);
+    public ResponseEntity<ApiResponse<String>> clearCart(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication) {
+        if (isGuest(authentication)) {
+            cartItemService.clearGuestCart(guestId(guestToken));
+        } else {
+            cartItemService.clearCart(authentication);
+        }
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart cleared successfully", "Cart cleared successfully"));
     }
 
     @PostMapping("/sync")
     public ResponseEntity<ApiResponse<CartResponse>> syncCart(
             @RequestBody List<AddToCartRequest> items,
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
             Authentication authentication) {
+        if (isGuest(authentication)) {
+            String guestId = guestCartCookie.verify(guestToken).orElseGet(guestCartCookie::newGuestId);
+            CartResponse response = cartItemService.syncGuestCart(guestId, items);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, guestCartCookie.create(guestId).toString())
+                    .body(ApiResponse.success(HttpStatus.OK.value(), "Cart synchronized successfully", response));
+        }
         CartResponse response = cartItemService.syncCart(items, authentication);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart synchronized successfully", response));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<CartSummaryResponse>> getCartSummary(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication, WebRequest request) {
+        CartSummaryResponse summary = summary(guestToken, authentication);
+        return withETag(summary, request, "Cart summary retrieved successfully", summary);
+    }
+
     @GetMapping("/count")
-    public ResponseEntity<ApiResponse<Integer>> getCartCount(Authentication authentication) {
-        Integer response = cartItemService.getCartItemCount(authentication);
-        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart count retrieved successfully", response));
+    public ResponseEntity<ApiResponse<Integer>> getCartCount(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication, WebRequest request) {
+        CartSummaryResponse summary = summary(guestToken, authentication);
+        return withETag(summary, request, "Cart count retrieved successfully", summary.getItemCount());
     }
 
     @GetMapping("/total")
-    public ResponseEntity<ApiResponse<java.math.BigDecimal>> getCartTotal(Authentication authentication) {
-        java.math.BigDecimal response = cartItemService.getCartTotal(authentication);
-        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart total retrieved successfully", response));
+    public ResponseEntity<ApiResponse<java.math.BigDecimal>> getCartTotal(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication, WebRequest request) {
+        CartSummaryResponse summary = summary(guestToken, authentication);
+        return withETag(summary, request, "Cart total retrieved successfully", summary.getSubtotal());
+    }
+
+    @GetMapping("/pricing")
+    public ResponseEntity<ApiResponse<CartPricingResponse>> getCartPricing(
+            @CookieValue(name = GuestCartCookie.NAME, required = false) String guestToken,
+            Authentication authentication) {
+        CartPricingResponse response = isGuest(authentication)
+                ? cartItemService.priceGuestCart(guestId(guestToken))
+                : cartItemService.priceCart(authentication);
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart priced successfully", response));
     }
 
     @PostMapping("/validate")
-    public ResponseEntity<ApiResponse<String>> validateCart(Authentication authentication) {
-        String response = cartItemService.validateCart(authentication);
+    public ResponseEntity<ApiResponse<CartPricingResponse>> validateCart(Authentication authentication) {
+        CartPricingResponse response = cartItemService.validateCart(authentication);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Cart validation completed", response));
     }
+
+    private CartSummaryResponse summary(String guestToken, Authentication authentication) {
+        return isGuest(authentication)
+                ? cartItemService.getGuestCartSummary(guestId(guestToken))
+                : cartItemService.getCartSummary(authentication);
+    }
+
+    /**
+     * Guest id of a valid guest cart cookie, or null
+     */
+    private String guestId(String guestToken) {
+        return guestCartCookie.verify(guestToken).orElse(null);
+    }
+
+    /**
+     * Unauthenticated requests only get here without an access token (see SecurityConfig), so they are guests
+     */
+    private static boolean isGuest(Authentication authentication) {
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    /**
+     * Answer 304 when the client already has this version of the cart summary
+     */
+    private <T> ResponseEntity<ApiResponse<T>> withETag(CartSummaryResponse summary, WebRequest request, String message, T data) {
+        String eTag = CartSummaryService.eTag(summary);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(ApiResponse.success(HttpStatus.OK.value(), message, data));
+    }
 }
@@ -1,14 +1,27 @@
 package com.ecommerce.ecommerce.api.controller;
 
 import com.ecommerce.ecommerce.api.dto.common.ApiResponse;
+import com.ecommerce.ecommerce.api.dto.dashboard.CohortReportDTO;
 import com.ecommerce.ecommerce.api.dto.dashboard.DashboardOverviewDTO;
+import com.ecommerce.ecommerce.api.dto.dashboard.TimeSeriesDTO;
+import com.ecommerce.ecommerce.core.service.BusinessTimeSeries;
+import com.ecommerce.ecommerce.core.service.CohortReportService;
+import com.ecommerce.ecommerce.core.service.DailySalesService;
 import com.ecommerce.ecommerce.core.service.DashboardService;
+import com.ecommerce.ecommerce.core.service.DashboardStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * REST Controller for Dashboard operations.
@@ -21,6 +34,9 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DailySalesService dailySalesService;
+    private final DashboardStreamService dashboardStreamService;
+    private final CohortReportService cohortReportService;
 
     /**
      * Get dashboard overview with all statistics
@@ -59,10 +75,12 @@ public class DashboardController {
 
         try {
             var salesStats = dashboardService.getSalesStats();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, salesStats.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Sales statistics retrieved successfully",
-                salesStats
+                salesStats.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving sales statistics", e);
@@ -86,10 +104,12 @@ public class DashboardController {
 
         try {
             var productStats = dashboardService.getProductStats();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, productStats.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Product statistics retrieved successfully",
-                productStats
+                productStats.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving product statistics", e);
@@ -113,10 +133,12 @@ public class DashboardController {
 
         try {
             var userStats = dashboardService.getUserStats();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, userStats.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "User statistics retrieved successfully",
-                userStats
+                userStats.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving user statistics", e);
@@ -140,10 +162,12 @@ public class DashboardController {
 
         try {
             var orderStats = dashboardService.getOrderStats();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, orderStats.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Order statistics retrieved successfully",
-                orderStats
+                orderStats.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving order statistics", e);
@@ -167,10 +191,12 @@ public class DashboardController {
 
         try {
             var recentOrders = dashboardService.getRecentOrders();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, recentOrders.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Recent orders retrieved successfully",
-                recentOrders
+                recentOrders.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving recent orders", e);
@@ -192,10 +218,12 @@ public class DashboardController {
 
         try {
             var topProducts = dashboardService.getTopProducts();
-            return ResponseEntity.ok(ApiResponse.success(
+            return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, topProducts.ageSeconds())
+                .body(ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Top products retrieved successfully",
-                topProducts
+                topProducts.value()
             ));
         } catch (Exception e) {
             log.error("Error retrieving top products", e);
@@ -208,4 +236,79 @@ public class DashboardController {
                 ));
         }
     }
+
+    /**
+     * Backfill the daily sales rollup for days in [from, to)
+     */
+    @PostMapping("/sales/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Rebuilding daily sales rollup from {} to {}", from, to);
+
+        int rows = dailySalesService.rebuild(from, to);
+        dashboardService.invalidateCache();
+        return ResponseEntity.ok(ApiResponse.success(
+            HttpStatus.OK.value(),
+            "Daily sales rollup rebuilt successfully",
+            rows
+        ));
+    }
+
+    /**
+     * Live dashboard stream: a snapshot on connect, then deltas as orders, users and stock change
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamDashboard() {
+        log.info("Opening live dashboard stream");
+        return dashboardStreamService.subscribe();
+    }
+
+    /**
+     * Per-minute business time series for the last 24 hours, served from memory
+     */
+    @GetMapping("/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<TimeSeriesDTO>>> getTimeSeries(
+            @RequestParam(required = false) BusinessTimeSeries.Metric metric,
+            @RequestParam(defaultValue = "60") int minutes) {
+        List<TimeSeriesDTO> series = dashboardService.getTimeSeries(metric, minutes);
+        return ResponseEntity.ok(ApiResponse.success(
+            HttpStatus.OK.value(),
+            "Time series retrieved successfully",
+            series
+        ));
+    }
+
+    /**
+     * Cohort retention and customer lifetime value report, served from the stored copy
+     */
+    @GetMapping("/cohorts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CohortReportDTO>> getCohortReport() {
+        CohortReportDTO report = cohortReportService.getReport();
+        return ResponseEntity.ok(ApiResponse.success(
+            HttpStatus.OK.value(),
+            "Cohort report retrieved successfully",
+            report
+        ));
+    }
+
+    /**
+     * Recompute the cohort report now instead of waiting for the nightly rebuild
+     */
+    @PostMapping("/cohorts/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CohortReportDTO>> rebuildCohortReport() {
+        log.info("Rebuilding cohort report");
+
+        CohortReportDTO report = cohortReportService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success(
+            HttpStatus.OK.value(),
+            "Cohort report rebuilt successfully",
+            report
+        ));
+    }
 }
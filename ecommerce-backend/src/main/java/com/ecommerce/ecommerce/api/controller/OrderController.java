@@ -0,0 +1,74 @@
+package com.ecommerce.ecommerce.api.controller;
+
+import com.ecommerce.ecommerce.api.dto.common.ApiResponse;
+import com.ecommerce.ecommerce.api.dto.common.CursorPageResponse;
+import com.ecommerce.ecommerce.api.dto.order.CreateOrderRequest;
+import com.ecommerce.ecommerce.api.dto.order.OrderResponse;
+import com.ecommerce.ecommerce.api.dto.order.OrderSummaryResponse;
+import com.ecommerce.ecommerce.api.mapper.DtoMapper;
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.User;
+import com.ecommerce.ecommerce.core.exception.ErrorCode;
+import com.ecommerce.ecommerce.core.exception.ResourceNotFoundException;
+import com.ecommerce.ecommerce.core.service.AuthenticationService;
+import com.ecommerce.ecommerce.core.service.CartItemService;
+import com.ecommerce.ecommerce.core.service.IdempotencyService;
+import com.ecommerce.ecommerce.core.service.OrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final OrderService orderService;
+    private final AuthenticationService authenticationService;
+    private final IdempotencyService idempotencyService;
+    private final CartItemService cartItemService;
+    private final DtoMapper mapper;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+
+        User user = authenticationService.getCurrentUser(authentication);
+        cartItemService.reconcileForCheckout(user.getId());
+
+        Order order;
+        if (idempotencyKey == null) {
+            order = orderService.placeOrder(request, user);
+        } else {
+            // Retries with the same key replay the order created by the first attempt
+            String orderId = idempotencyService.execute("order:" + user.getId(), idempotencyKey,
+                    idempotencyService.fingerprint(request),
+                    () -> orderService.placeOrder(request, user).getId().toString());
+            order = orderService.getOrderById(Long.valueOf(orderId))
+                    .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.ORDER_NOT_FOUND, "Order", orderId));
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(HttpStatus.CREATED.value(), "Order created successfully", mapper.toOrderResponseDTO(order)));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse<CursorPageResponse<OrderSummaryResponse>>> getOrderHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+
+        Long userId = Long.valueOf(authenticationService.getCurrentUserId(authentication));
+        CursorPageResponse<OrderSummaryResponse> response = orderService.getOrderHistory(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Order history retrieved successfully", response));
+    }
+}
@@ -6,6 +6,8 @@ import com.ecommerce.ecommerce.api.dto.product.*;
 import com.ecommerce.ecommerce.api.mapper.DtoMapper;
 import com.ecommerce.ecommerce.core.domain.entity.Product;
 import com.ecommerce.ecommerce.core.service.ProductService;
+import com.ecommerce.ecommerce.core.service.UniqueCounterService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +15,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -34,6 +39,8 @@ public class ProductController {
 
     private final ProductService productService;
     private final DtoMapper mapper;
+    private final UniqueCounterService uniqueCounterService;
+
     /**
      * Get all active products with pagination
      */
@@ -57,7 +64,10 @@ public class ProductController {
      * Search products with filters
      */
     @PostMapping("/search")
-    public ResponseEntity<ApiResponse<PageResponse<ProductResponse>>> searchProducts(@Valid @RequestBody ProductSearchRequest request) {
+    public ResponseEntity<ApiResponse<PageResponse<ProductResponse>>> searchProducts(@Valid @RequestBody ProductSearchRequest request,
+                                                                                      Authentication authentication,
+                                                                                      HttpServletRequest httpRequest) {
+        uniqueCounterService.record(UniqueCounterService.Metric.SEARCHERS, visitorId(authentication, httpRequest));
 
         Sort.Direction direction = request.getSortDirection().equalsIgnoreCase("asc") ?
                 Sort.Direction.ASC : Sort.Direction.DESC;
@@ -76,7 +86,10 @@ public class ProductController {
      * Get product by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id,
+                                                                       Authentication authentication,
+                                                                       HttpServletRequest httpRequest) {
+        uniqueCounterService.record(UniqueCounterService.Metric.PRODUCT_VIEWERS, visitorId(authentication, httpRequest));
         Product response = productService.getProductById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Product retrieved successfully", mapper.toProductResponseDTO(response)));
@@ -112,8 +125,11 @@ public class ProductController {
     public ResponseEntity<ApiResponse<PageResponse<ProductResponse>>> simpleSearch(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
 
+        uniqueCounterService.record(UniqueCounterService.Metric.SEARCHERS, visitorId(authentication, httpRequest));
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> response = productService.searchProductsByTerm(q, pageable);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Simple search completed successfully", mapper.toPageDto(response,mapper::toProductResponseDTO)));
@@ -190,4 +206,15 @@ public class ProductController {
         List<Product> response = productService.getLowStockProducts(threshold);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Low stock products retrieved successfully", mapper.toProductResponseDTOs(response)));
     }
+
+    /**
+     * Identity used for unique counts: the signed-in user, otherwise client address and user agent
+     */
+    private String visitorId(Authentication authentication, HttpServletRequest request) {
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        return "a:" + request.getRemoteAddr() + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+    }
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.ecommerce.api.dto.cart;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartPricingResponse {
+
+    private List<PricedCartLine> lines;
+    private Integer itemCount; // purchasable quantity after adjustments
+    private BigDecimal subtotal; // at current catalog prices
+    private String currency;
+    private Boolean valid; // every line can be bought as requested
+    private Boolean adjusted; // at least one line carries an adjustment
+
+}
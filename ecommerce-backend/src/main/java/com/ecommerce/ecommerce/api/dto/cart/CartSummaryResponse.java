@@ -0,0 +1,22 @@
+package com.ecommerce.ecommerce.api.dto.cart;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartSummaryResponse {
+
+    private Integer itemCount;
+    private BigDecimal subtotal;
+    private String currency;
+    private LocalDateTime lastModified;
+    private Long version; // changes with every cart mutation; null when served without the summary cache
+
+}
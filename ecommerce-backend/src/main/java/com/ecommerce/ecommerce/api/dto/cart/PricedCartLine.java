@@ -0,0 +1,45 @@
+package com.ecommerce.ecommerce.api.dto.cart;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PricedCartLine {
+
+    private String id;
+    private String productId;
+    private String productName;
+    private String productSku;
+    private String productImage;
+    private String variantId;
+    private String variantName;
+    private Integer requestedQuantity;
+    private Integer quantity; // what can be bought now
+    private Integer availableQuantity;
+    private BigDecimal cartPrice; // price when the line was added, if known
+    private BigDecimal unitPrice; // current catalog price
+    private BigDecimal lineTotal;
+    private List<Adjustment> adjustments;
+
+    public enum Adjustment {
+        PRICE_CHANGED,
+        QUANTITY_REDUCED,
+        OUT_OF_STOCK,
+        PRODUCT_UNAVAILABLE,
+        VARIANT_UNAVAILABLE
+    }
+
+    /**
+     * Whether the line can be bought in the requested quantity; a price change alone does not block it
+     */
+    public boolean isPurchasable() {
+        return adjustments.isEmpty() || adjustments.equals(List.of(Adjustment.PRICE_CHANGED));
+    }
+}
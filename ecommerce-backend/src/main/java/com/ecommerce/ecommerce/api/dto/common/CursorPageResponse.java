@@ -0,0 +1,17 @@
+package com.ecommerce.ecommerce.api.dto.common;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+  private List<T> data;
+  private int size;
+  private String nextCursor;
+  private boolean hasMore;
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.ecommerce.api.dto.dashboard;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class CohortReportDTO {
+    private LocalDateTime generatedAt;
+    private long durationMs;
+    private long customers;
+    private double lifetimeValue; // revenue per customer across all cohorts
+    private List<CohortDTO> cohorts;
+
+    @Setter
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    @Data
+    public static class CohortDTO {
+        private String signupMonth; // yyyy-MM
+        private long customers;
+        private long purchasers;
+        private double repeatPurchaseRate; // share of the cohort with two or more orders
+        private double[] activeRates; // [k] = share of the cohort that ordered k months after signing up
+        private double[] cumulativeValue; // [k] = revenue per cohort customer up to k months after signup
+        private double lifetimeValue;
+    }
+}
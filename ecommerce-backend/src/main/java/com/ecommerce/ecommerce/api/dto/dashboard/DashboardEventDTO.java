@@ -0,0 +1,30 @@
+package com.ecommerce.ecommerce.api.dto.dashboard;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DashboardEventDTO {
+    private String type; // ORDER_CREATED, ORDER_STATUS_CHANGED, ORDER_CANCELLED, USER_REGISTERED or STOCK_CHANGED
+    private Long orderId;
+    private String orderNumber;
+    private String status;
+    private String previousStatus;
+    private LocalDate orderDate;
+    private BigDecimal revenueDelta;
+    private Long userId;
+    private Long productId;
+    private Integer availableStock;
+    private Boolean inStock;
+    private Boolean previouslyInStock;
+    private long version;
+    private LocalDateTime occurredAt;
+}
@@ -3,6 +3,7 @@ package com.ecommerce.ecommerce.api.dto.dashboard;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Setter
 @Getter
@@ -17,4 +18,7 @@ public class DashboardOverviewDTO {
     private OrderStatsDTO orderStats;
     private RecentOrdersDTO recentOrders;
     private TopProductsDTO topProducts;
+    private boolean partial; // true when at least one section missed the latency budget or failed
+    private long totalDurationMs;
+    private List<DashboardSectionTimingDTO> sectionTimings;
 }
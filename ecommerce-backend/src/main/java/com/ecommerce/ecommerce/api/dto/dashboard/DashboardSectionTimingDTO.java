@@ -0,0 +1,17 @@
+package com.ecommerce.ecommerce.api.dto.dashboard;
+
+import lombok.*;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DashboardSectionTimingDTO {
+    private String section;
+    private String status; // OK, TIMEOUT or FAILED
+    private long durationMs;
+    private String error;
+    private Long cacheAgeMs; // age of the served value, null when the section was not served
+}
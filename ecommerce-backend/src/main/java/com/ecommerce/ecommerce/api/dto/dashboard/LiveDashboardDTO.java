@@ -0,0 +1,25 @@
+package com.ecommerce.ecommerce.api.dto.dashboard;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class LiveDashboardDTO {
+    private LocalDate date;
+    private BigDecimal todayRevenue;
+    private Long todayOrders;
+    private Long todayNewUsers;
+    private Map<String, Long> ordersByStatus;
+    private Long outOfStockProducts;
+    private long version;
+    private LocalDateTime updatedAt;
+}
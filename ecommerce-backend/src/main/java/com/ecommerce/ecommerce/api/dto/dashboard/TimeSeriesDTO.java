@@ -0,0 +1,18 @@
+package com.ecommerce.ecommerce.api.dto.dashboard;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class TimeSeriesDTO {
+    private String metric; // ORDERS, REVENUE, SIGNUPS or ADD_TO_CARTS
+    private int intervalSeconds;
+    private LocalDateTime start; // start of the first point; the last point is the current, partial minute
+    private double[] values;
+}
@@ -18,4 +18,22 @@ public class UserStatsDTO {
     private Double userGrowthPercentage;
     private Long totalAdmins;
     private Long totalCustomers;
+    private UniqueCountsDTO uniqueBuyers;
+    private UniqueCountsDTO uniqueProductViewers;
+    private UniqueCountsDTO uniqueSearchers;
+
+    /**
+     * Approximate distinct counts (HyperLogLog, ~1% error) for the current day, week and month
+     */
+    @Setter
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    @Data
+    public static class UniqueCountsDTO {
+        private long today;
+        private long thisWeek;
+        private long thisMonth;
+    }
 }
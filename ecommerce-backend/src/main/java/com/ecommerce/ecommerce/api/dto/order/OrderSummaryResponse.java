@@ -0,0 +1,25 @@
+package com.ecommerce.ecommerce.api.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private String id;
+    private String orderNumber;
+    private LocalDateTime createdAt;
+    private BigDecimal totalAmount;
+    private String currency;
+    private String status;
+    private long itemCount;
+
+}
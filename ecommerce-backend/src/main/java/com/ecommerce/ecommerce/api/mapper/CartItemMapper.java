@@ -41,7 +41,7 @@ public interface CartItemMapper {
         return CartResponse.builder().items(itemResponseList)
                 .totalItems(itemResponseList.stream().mapToInt(CartItemResponse::getQuantity).sum())
                 .currency("JPY")
-                .totalPrice(itemResponseList.stream().map(CartItemResponse::getPrice).reduce(BigDecimal.ZERO,BigDecimal::add))
+                .totalPrice(itemResponseList.stream().map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))).reduce(BigDecimal.ZERO,BigDecimal::add))
                 .build();
     };
 
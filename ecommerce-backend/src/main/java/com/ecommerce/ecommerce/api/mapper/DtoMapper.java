@@ -4,6 +4,7 @@ import com.ecommerce.ecommerce.api.dto.auth.UserInfo;
 import com.ecommerce.ecommerce.api.dto.cart.AddToCartRequest;
 import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
 import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.dto.cart.PricedCartLine;
 import com.ecommerce.ecommerce.api.dto.cart.UpdateCartItemRequest;
 import com.ecommerce.ecommerce.api.dto.category.CategoryCreateRequest;
 import com.ecommerce.ecommerce.api.dto.category.CategoryResponse;
@@ -17,6 +18,7 @@ import com.ecommerce.ecommerce.api.dto.review.ReviewResponse;
 import com.ecommerce.ecommerce.api.dto.user.UpdateProfileRequest;
 import com.ecommerce.ecommerce.api.dto.user.UserResponse;
 import com.ecommerce.ecommerce.core.domain.entity.*;
+import com.ecommerce.ecommerce.core.domain.projection.OrderSummary;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
@@ -64,6 +66,20 @@ public class DtoMapper {
         return orderItem;
     }
 
+    /**
+     * Order item from a checkout line priced by the cart pricing engine; product and variant are set by the caller
+     */
+    public OrderItem toOrderItemEntity(OrderItemRequest request, PricedCartLine line) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductName(line.getProductName());
+        orderItem.setProductSku(line.getProductSku());
+        orderItem.setProductImageUrl(line.getProductImage());
+        orderItem.setVariantName(line.getVariantName());
+        orderItem.setQuantity(request.getQuantity());
+        orderItem.setUnitPrice(line.getUnitPrice());
+        return orderItem;
+    }
+
     public OrderItemResponse toOrderItemResponseDTO(OrderItem orderItem) {
         return orderMapper.orderItemsToDto(List.of(orderItem)).get(0);
     }
@@ -72,6 +88,18 @@ public class DtoMapper {
         return orderMapper.orderToOrderResponse(order);
     }
 
+    public OrderSummaryResponse toOrderSummaryResponseDTO(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+                .id(summary.getId().toString())
+                .orderNumber(summary.getOrderNumber())
+                .createdAt(summary.getCreatedAt())
+                .totalAmount(summary.getTotalAmount())
+                .currency(summary.getCurrency())
+                .status(summary.getStatus().toString())
+                .itemCount(summary.getItemCount() != null ? summary.getItemCount() : 0)
+                .build();
+    }
+
     public Order createOrderFromRequest(CreateOrderRequest request, User user) {
         Order order = orderMapper.createOrderRequestToOrder(request);
         order.setUser(user);
@@ -0,0 +1,30 @@
+package com.ecommerce.ecommerce.config;
+
+import com.ecommerce.ecommerce.core.service.DashboardStreamService;
+import com.ecommerce.ecommerce.core.service.TokenBlacklistService;
+import com.ecommerce.ecommerce.core.service.UserPrincipalCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Pub/sub subscriptions for events shared between application nodes
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       DashboardStreamService dashboardStreamService,
+                                                                       UserPrincipalCache userPrincipalCache,
+                                                                       TokenBlacklistService tokenBlacklistService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(dashboardStreamService, new ChannelTopic(DashboardStreamService.CHANNEL));
+        container.addMessageListener(userPrincipalCache, new ChannelTopic(UserPrincipalCache.CHANNEL));
+        container.addMessageListener(tokenBlacklistService, new ChannelTopic(TokenBlacklistService.CHANNEL));
+        return container;
+    }
+}
@@ -3,31 +3,39 @@ package com.ecommerce.ecommerce.config;
 import com.ecommerce.ecommerce.core.security.JwtAuthenticationEntryPoint;
 import com.ecommerce.ecommerce.core.security.JwtAuthenticationFilter;
 import com.ecommerce.ecommerce.core.service.UserServiceProvider;
+import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.util.WebUtils;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
@@ -72,7 +80,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/orders/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/orders/**").hasAnyRole("USER", "ADMIN")
-                .requestMatchers("/api/cart/**").hasAnyRole("USER", "ADMIN")
+                .requestMatchers("/api/cart/validate").hasAnyRole("USER", "ADMIN")
+                .requestMatchers("/api/cart/**").access(SecurityConfig::guestOrAuthenticated)
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/webhook/**").permitAll()
                     .requestMatchers("/api/reviews/**").permitAll()
@@ -88,6 +97,21 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Cart endpoints also serve guests, but only requests without an access token are guests: one whose
+     * token did not authenticate (expired or revoked) gets a 401, so the client refreshes it instead of
+     * being shown an empty guest cart
+     */
+    private static AuthorizationDecision guestOrAuthenticated(Supplier<Authentication> authentication,
+                                                              RequestAuthorizationContext context) {
+        Authentication current = authentication.get();
+        if (current != null && current.isAuthenticated() && !(current instanceof AnonymousAuthenticationToken)) {
+            return new AuthorizationDecision(true);
+        }
+        Cookie token = WebUtils.getCookie(context.getRequest(), JwtAuthenticationFilter.ACCESS_TOKEN_COOKIE);
+        return new AuthorizationDecision(token == null || !StringUtils.hasText(token.getValue()));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,32 @@
+package com.ecommerce.ecommerce.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * AnalyticsReport entity holding the latest JSON result of an expensive analytics computation
+ */
+@Entity
+@Table(name = "analytics_reports")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsReport {
+
+    @Id
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private Long durationMs;
+}
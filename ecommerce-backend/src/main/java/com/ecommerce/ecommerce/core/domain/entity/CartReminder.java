@@ -0,0 +1,26 @@
+package com.ecommerce.ecommerce.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * CartReminder entity recording when a user was last reminded of an abandoned cart
+ */
+@Entity
+@Table(name = "cart_reminders")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartReminder {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "reminded_at", nullable = false)
+    private LocalDateTime remindedAt;
+}
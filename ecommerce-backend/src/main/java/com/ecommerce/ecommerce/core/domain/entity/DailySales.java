@@ -0,0 +1,52 @@
+package com.ecommerce.ecommerce.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DailySales entity representing the pre-aggregated sales of one day for one order status.
+ * Rows are written with native upserts by DailySalesService, never through the entity.
+ */
+@Entity
+@Table(name = "daily_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySales {
+
+    @EmbeddedId
+    private DailySalesId id;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "items_sold", nullable = false)
+    private Long itemsSold;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class DailySalesId implements Serializable {
+
+        @Column(name = "sales_date", nullable = false)
+        private LocalDate salesDate;
+
+        @Column(name = "status", nullable = false)
+        private String status;
+    }
+}
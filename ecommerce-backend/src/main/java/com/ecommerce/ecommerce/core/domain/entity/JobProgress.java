@@ -0,0 +1,66 @@
+package com.ecommerce.ecommerce.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JobProgress entity holding the keyset cursor of a restartable scheduled scan.
+ * A run is in progress while it has started but not finished.
+ */
+@Entity
+@Table(name = "job_progress")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobProgress {
+
+    @Id
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "cursor_id", nullable = false)
+    private Long cursorId;
+
+    @Column(name = "run_cutoff")
+    private LocalDateTime runCutoff;
+
+    @Column(name = "processed", nullable = false)
+    private Long processed;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public boolean isRunning() {
+        return startedAt != null && finishedAt == null;
+    }
+
+    /**
+     * Start a new run from the beginning of the keyset
+     */
+    public void start(LocalDateTime cutoff) {
+        this.cursorId = 0L;
+        this.runCutoff = cutoff;
+        this.processed = 0L;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+    }
+
+    /**
+     * Record a committed chunk
+     */
+    public void advance(Long cursorId, int processed) {
+        this.cursorId = cursorId;
+        this.processed = this.processed + processed;
+    }
+
+    public void finish() {
+        this.finishedAt = LocalDateTime.now();
+    }
+}
@@ -7,7 +7,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -21,10 +20,10 @@ import java.util.List;
  */
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_order_user", columnList = "user_id"),
-    @Index(name = "idx_order_status", columnList = "status"),
+    @Index(name = "idx_order_user_created_id", columnList = "user_id, created_at DESC, id DESC"),
+    @Index(name = "idx_order_status", columnList = "status, created_at"),
     @Index(name = "idx_order_created", columnList = "created_at"),
-    @Index(name = "idx_order_number", columnList = "order_number", unique = true)
+    @Index(name = "idx_order_number", columnList = "order_number")
 })
 @Data
 @Builder
@@ -33,10 +32,12 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "order_number", unique = true, nullable = false)
+    // Unique across partitions through the order_numbers table, claimed on insert
+    @Column(name = "order_number", nullable = false, updatable = false)
     private String orderNumber; // Human-readable order number like "ORD-2024001"
 
     @NotNull
@@ -115,7 +116,13 @@ public class Order {
     @Column(name = "coupon_code")
     private String couponCode;
 
-    @CreationTimestamp
+    // Set once ORDER_CREATED reserved stock, cleared when a cancellation releases it.
+    // Only changed through OrderRepository.markStockReserved, so saving a stale order cannot overwrite it
+    @Builder.Default
+    @Column(name = "stock_reserved", nullable = false, updatable = false)
+    private Boolean stockReserved = false;
+
+    // Partition key of orders (and, via order_created_at, of order_items); assigned in onCreate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -128,6 +135,19 @@ public class Order {
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    /**
+     * Assign the creation time before the items are cascaded so they land in the same partition
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (orderItems != null) {
+            orderItems.forEach(item -> item.setOrderCreatedAt(createdAt));
+        }
+    }
+
     /**
      * Calculate total items in order
      */
@@ -0,0 +1,96 @@
+package com.ecommerce.ecommerce.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * OutboxEvent entity representing a domain event waiting to be delivered to in-process handlers.
+ * Rows are inserted in the same transaction as the change that caused them.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    // One id per insert: ids order delivery per aggregate, so they must not come from per-node blocks
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime availableAt = LocalDateTime.now();
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    /**
+     * Mark event as delivered to all handlers
+     */
+    public void markDone() {
+        this.status = OutboxStatus.DONE;
+        this.processedAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    /**
+     * Record a failed delivery; retried after an exponential backoff until maxAttempts is reached
+     */
+    public void markFailed(Throwable error, int maxAttempts, Duration baseBackoff) {
+        this.attempts = attempts + 1;
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        this.lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        if (attempts >= maxAttempts) {
+            this.status = OutboxStatus.DEAD;
+            this.processedAt = LocalDateTime.now();
+        } else {
+            long factor = 1L << Math.min(attempts - 1, 10);
+            this.availableAt = LocalDateTime.now().plus(baseBackoff.multipliedBy(factor));
+        }
+    }
+
+    public enum OutboxStatus {
+        PENDING,    // Waiting for delivery (possibly backing off after a failure)
+        DONE,       // Delivered to all handlers
+        DEAD        // Gave up after max attempts, needs manual attention
+    }
+}
@@ -23,7 +23,9 @@ import java.util.List;
     @Index(name = "idx_product_name", columnList = "name"),
     @Index(name = "idx_product_category", columnList = "category_id"),
     @Index(name = "idx_product_price", columnList = "price"),
-    @Index(name = "idx_product_active", columnList = "is_active")
+    @Index(name = "idx_product_active", columnList = "is_active"),
+    @Index(name = "idx_product_active_in_stock", columnList = "is_active, in_stock"),
+    @Index(name = "idx_product_available_stock", columnList = "available_stock")
 })
 @Data
 @Builder
@@ -32,7 +34,8 @@ import java.util.List;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -63,6 +66,13 @@ public class Product {
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity;
 
+    // Availability rollup across active variants, maintained in the database by ProductAvailabilityService
+    @Column(name = "available_stock", nullable = false, insertable = false, updatable = false)
+    private Integer availableStock;
+
+    @Column(name = "in_stock", nullable = false, insertable = false, updatable = false)
+    private Boolean inStock;
+
     @Builder.Default
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
@@ -146,9 +156,12 @@ public class Product {
     }
 
     /**
-     * Check if product is in stock
+     * Check if product is in stock (uses the variant rollup once it has been computed)
      */
     public boolean isInStock() {
+        if (inStock != null) {
+            return inStock;
+        }
         return stockQuantity != null && stockQuantity > 0;
     }
 
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class ProductImage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_image_seq")
+    @SequenceGenerator(name = "product_image_seq", sequenceName = "product_images_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -32,7 +32,8 @@ import java.time.LocalDateTime;
 public class ProductVariant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_variant_seq")
+    @SequenceGenerator(name = "product_variant_seq", sequenceName = "product_variants_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
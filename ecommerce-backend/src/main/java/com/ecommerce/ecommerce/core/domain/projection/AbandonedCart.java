@@ -0,0 +1,19 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's idle cart that has not been reminded since its last change.
+ */
+public interface AbandonedCart {
+
+    Long getUserId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    Long getItemCount();
+
+    LocalDateTime getLastActivity();
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+/**
+ * A stored cart line joined with the current catalog state of its product and variant.
+ */
+public interface CartLine extends CatalogLine {
+
+    Long getCartItemId();
+
+    Integer getQuantity();
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Item count, subtotal at current catalog prices and last change of one user's cart.
+ */
+public interface CartTotals {
+
+    Long getItemCount();
+
+    BigDecimal getSubtotal();
+
+    LocalDateTime getLastModified();
+}
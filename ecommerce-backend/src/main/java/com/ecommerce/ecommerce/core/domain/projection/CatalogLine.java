@@ -0,0 +1,36 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Current catalog state of a product, and optionally one of its variants, as needed to price a cart line.
+ * Variant columns are null when the line has no variant or the variant does not belong to the product.
+ */
+public interface CatalogLine {
+
+    Long getProductId();
+
+    String getProductName();
+
+    String getProductSku();
+
+    String getProductImage();
+
+    BigDecimal getProductPrice();
+
+    Boolean getProductActive();
+
+    Integer getProductStock();
+
+    Long getVariantId();
+
+    String getVariantType();
+
+    String getVariantValue();
+
+    BigDecimal getVariantPrice();
+
+    Boolean getVariantActive();
+
+    Integer getVariantStock();
+}
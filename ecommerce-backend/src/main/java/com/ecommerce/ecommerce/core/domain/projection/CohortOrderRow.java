@@ -0,0 +1,17 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+/**
+ * One counted order with its customer's signup month, streamed for cohort analytics.
+ * Months are absolute month indexes (year * 12 + month - 1) and amounts are in cents,
+ * so the consumer can accumulate into primitive arrays without date or decimal arithmetic.
+ */
+public interface CohortOrderRow {
+
+    Long getUserId();
+
+    Integer getSignupMonth();
+
+    Integer getOrderMonth();
+
+    Long getAmountCents();
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order counts for every status, produced by a single GROUP BY pass (or the in-memory counter).
+ * Statuses without orders report zero.
+ */
+public final class OrderStatusBreakdown {
+
+    private final Map<Order.OrderStatus, Long> counts;
+
+    public OrderStatusBreakdown(Map<Order.OrderStatus, Long> counts) {
+        EnumMap<Order.OrderStatus, Long> copy = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            copy.put(status, counts.getOrDefault(status, 0L));
+        }
+        this.counts = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Build from [status, count] rows; status may be the enum or its name
+     */
+    public static OrderStatusBreakdown fromRows(List<Object[]> rows) {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        for (Object[] row : rows) {
+            Order.OrderStatus status = row[0] instanceof Order.OrderStatus orderStatus
+                    ? orderStatus : Order.OrderStatus.valueOf(row[0].toString());
+            counts.merge(status, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return new OrderStatusBreakdown(counts);
+    }
+
+    public long count(Order.OrderStatus status) {
+        return counts.get(status);
+    }
+
+    public long getTotal() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Map<Order.OrderStatus, Long> getCounts() {
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStatusBreakdown" + counts;
+    }
+}
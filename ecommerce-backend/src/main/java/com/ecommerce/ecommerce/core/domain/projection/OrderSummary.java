@@ -0,0 +1,27 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read model for order list rows.
+ * Selected column by column so order items are never loaded.
+ */
+public interface OrderSummary {
+
+    Long getId();
+
+    String getOrderNumber();
+
+    LocalDateTime getCreatedAt();
+
+    BigDecimal getTotalAmount();
+
+    String getCurrency();
+
+    Order.OrderStatus getStatus();
+
+    Long getItemCount();
+}
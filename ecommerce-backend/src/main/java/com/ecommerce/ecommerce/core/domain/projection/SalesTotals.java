@@ -0,0 +1,16 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales totals summed from the daily_sales rollup.
+ * Revenue excludes cancelled and refunded orders; order count includes every status.
+ */
+public interface SalesTotals {
+
+    BigDecimal getRevenue();
+
+    Long getOrderCount();
+
+    Long getItemsSold();
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.ecommerce.core.domain.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the top-selling products aggregate.
+ * Sales exclude cancelled and refunded orders; revenue is what customers paid after item discounts.
+ */
+public interface TopSellingProduct {
+
+    Long getProductId();
+
+    String getProductName();
+
+    String getCategoryName();
+
+    String getProductImage();
+
+    Long getUnitsSold();
+
+    BigDecimal getRevenue();
+
+    BigDecimal getAverageRating();
+}
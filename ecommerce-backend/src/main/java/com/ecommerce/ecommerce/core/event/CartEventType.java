@@ -0,0 +1,8 @@
+package com.ecommerce.ecommerce.core.event;
+
+/**
+ * Cart events published through the outbox
+ */
+public enum CartEventType {
+    CART_ABANDONED
+}
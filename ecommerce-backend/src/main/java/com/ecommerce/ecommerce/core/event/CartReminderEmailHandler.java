@@ -0,0 +1,40 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import com.ecommerce.ecommerce.integration.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends abandoned cart reminders queued by the abandoned cart scan
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartReminderEmailHandler implements OutboxEventHandler {
+
+    private final CartItemRepository cartItemRepository;
+    private final EmailService emailService;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_CART.equals(aggregateType)
+                && CartEventType.CART_ABANDONED.name().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        // The cart may have been checked out or cleared since the scan
+        if (cartItemRepository.countByUserId(event.getAggregateId()) == 0) {
+            log.debug("Skipping cart reminder for user {} with an empty cart", event.getAggregateId());
+            return;
+        }
+        emailService.sendAbandonedCartEmail((String) payload.get("email"), (String) payload.get("firstName"),
+                ((Number) payload.get("itemCount")).longValue());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.service.DailySalesService;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Applies order status transitions to the daily_sales rollup.
+ * The delta commits together with this handler's delivery record, so a retried event is not counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailySalesHandler implements OutboxEventHandler {
+
+    private final DailySalesService dailySalesService;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Object previousStatus = payload.get("previousStatus");
+        Object totalItems = payload.get("totalItems");
+        dailySalesService.recordTransition(
+                LocalDateTime.parse(payload.get("createdAt").toString()).toLocalDate(),
+                previousStatus != null ? Order.OrderStatus.valueOf(previousStatus.toString()) : null,
+                Order.OrderStatus.valueOf(payload.get("status").toString()),
+                new BigDecimal(payload.get("totalAmount").toString()),
+                totalItems != null ? ((Number) totalItems).longValue() : 0L);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.api.dto.dashboard.DashboardEventDTO;
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.service.DashboardStreamService;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Turns order lifecycle events into live dashboard deltas
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardStreamHandler implements OutboxEventHandler {
+
+    private final DashboardStreamService dashboardStreamService;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        String status = (String) payload.get("status");
+        String previousStatus = (String) payload.get("previousStatus");
+        BigDecimal totalAmount = payload.get("totalAmount") != null
+                ? new BigDecimal(payload.get("totalAmount").toString()) : BigDecimal.ZERO;
+        Object createdAt = payload.get("createdAt");
+
+        // Only once the handler transaction commits, so a rolled-back retry is not shown twice
+        dashboardStreamService.publishAfterCommit(DashboardEventDTO.builder()
+                .type(event.getEventType())
+                .orderId(event.getAggregateId())
+                .orderNumber((String) payload.get("orderNumber"))
+                .status(status)
+                .previousStatus(previousStatus)
+                .orderDate(createdAt != null ? LocalDateTime.parse(createdAt.toString()).toLocalDate() : null)
+                .revenueDelta(countedRevenue(status, totalAmount).subtract(countedRevenue(previousStatus, totalAmount)))
+                .userId(payload.get("userId") != null ? ((Number) payload.get("userId")).longValue() : null)
+                .build());
+    }
+
+    /**
+     * Revenue an order contributes in a status; cancelled and refunded orders contribute nothing
+     */
+    private static BigDecimal countedRevenue(String status, BigDecimal totalAmount) {
+        if (status == null) {
+            return BigDecimal.ZERO;
+        }
+        Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status);
+        return orderStatus == Order.OrderStatus.CANCELLED || orderStatus == Order.OrderStatus.REFUNDED
+                ? BigDecimal.ZERO : totalAmount;
+    }
+}
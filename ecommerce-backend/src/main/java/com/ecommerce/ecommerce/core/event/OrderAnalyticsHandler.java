@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Records order lifecycle events as metrics, once the delivery is committed
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderAnalyticsHandler implements OutboxEventHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Object status = payload.get("status");
+        Runnable record = () -> meterRegistry.counter("orders.events",
+                "type", event.getEventType(),
+                "status", status != null ? status.toString() : "UNKNOWN").increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+}
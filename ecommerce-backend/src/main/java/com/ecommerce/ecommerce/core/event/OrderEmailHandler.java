@@ -0,0 +1,60 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.domain.entity.User;
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import com.ecommerce.ecommerce.integration.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends customer emails for order lifecycle events.
+ * Runs after inventory, so an order cancelled because its stock could not be reserved gets no confirmation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEmailHandler implements OutboxEventHandler {
+
+    private final OrderRepository orderRepository;
+    private final EmailService emailService;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType)
+                && !OrderEventType.ORDER_CANCELLED.name().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Order order = orderRepository.findById(event.getAggregateId()).orElse(null);
+        if (order == null) {
+            log.warn("Skipping email for missing order {}", event.getAggregateId());
+            return;
+        }
+        User user = order.getUser();
+
+        if (OrderEventType.ORDER_CREATED.name().equals(event.getEventType())) {
+            if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                log.info("Skipping confirmation for cancelled order {}", order.getOrderNumber());
+                return;
+            }
+            emailService.sendOrderConfirmationEmail(user.getEmail(), order.getOrderNumber(), user.getFullName(),
+                    order.getTotalAmount().toPlainString(), order.getCurrency());
+            return;
+        }
+
+        Order.OrderStatus status = Order.OrderStatus.valueOf((String) payload.get("status"));
+        if (status == Order.OrderStatus.SHIPPED) {
+            emailService.sendOrderShippedEmail(user.getEmail(), order.getOrderNumber(),
+                    order.getTrackingNumber(), null);
+        } else if (status == Order.OrderStatus.DELIVERED) {
+            emailService.sendOrderDeliveredEmail(user.getEmail(), order.getOrderNumber());
+        }
+    }
+}
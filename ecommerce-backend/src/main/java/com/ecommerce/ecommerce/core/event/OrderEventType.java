@@ -0,0 +1,10 @@
+package com.ecommerce.ecommerce.core.event;
+
+/**
+ * Order lifecycle events published through the outbox
+ */
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_CANCELLED
+}
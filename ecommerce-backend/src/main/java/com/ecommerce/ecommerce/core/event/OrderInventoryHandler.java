@@ -0,0 +1,105 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OrderItem;
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import com.ecommerce.ecommerce.core.service.InventoryService;
+import com.ecommerce.ecommerce.core.service.OrderService;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reserves stock for new orders and releases it when an order is cancelled.
+ * The order records whether its stock is reserved, so a cancellation of an order that never got its
+ * stock releases nothing. An order whose stock cannot be reserved is cancelled rather than retried, as
+ * waiting would only leave it pending; this handler runs first, so no confirmation is sent for it.
+ */
+@Component
+@org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class OrderInventoryHandler implements OutboxEventHandler {
+
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final OrderService orderService;
+    private final TransactionTemplate reservation;
+
+    public OrderInventoryHandler(OrderRepository orderRepository,
+                                 InventoryService inventoryService,
+                                 OrderService orderService,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+        this.orderService = orderService;
+        // A failed reservation rolls back on its own, whatever it already took, while the cancellation commits
+        this.reservation = new TransactionTemplate(transactionManager);
+        this.reservation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType)
+                && (OrderEventType.ORDER_CREATED.name().equals(eventType)
+                    || OrderEventType.ORDER_CANCELLED.name().equals(eventType));
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Order order = orderRepository.findById(event.getAggregateId()).orElse(null);
+        if (order == null) {
+            log.warn("Skipping inventory update for missing order {}", event.getAggregateId());
+            return;
+        }
+
+        Map<Long, Integer> productQuantities = new HashMap<>();
+        Map<Long, Integer> variantQuantities = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProductVariant() != null) {
+                variantQuantities.merge(item.getProductVariant().getId(), item.getQuantity(), Integer::sum);
+            } else {
+                productQuantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        if (OrderEventType.ORDER_CREATED.name().equals(event.getEventType())) {
+            if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                log.info("Order {} cancelled before its stock was reserved, nothing to reserve", order.getOrderNumber());
+                return;
+            }
+            Boolean reserved = reservation.execute(status -> {
+                // Flag first: a redelivered event finds it set, a failed reservation rolls it back
+                if (orderRepository.markStockReserved(order.getId(), true) == 0) {
+                    return true;
+                }
+                if (!inventoryService.reserveStock(productQuantities, variantQuantities)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(reserved)) {
+                return;
+            }
+            if (order.canBeCancelled()) {
+                log.warn("Cancelling order {}: stock could not be reserved", order.getOrderNumber());
+                orderService.cancelOrder(order.getId());
+            } else {
+                log.error("Stock could not be reserved for order {} in status {}, needs manual attention",
+                        order.getOrderNumber(), order.getStatus());
+            }
+        } else if (orderRepository.markStockReserved(order.getId(), false) == 1) {
+            inventoryService.releaseStock(productQuantities, variantQuantities);
+        } else {
+            log.info("Order {} cancelled without reserved stock, nothing to release", order.getOrderNumber());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Background dispatcher draining the outbox.
+ * Each poll claims a batch with FOR UPDATE SKIP LOCKED, so several nodes can run it side by side.
+ * Every handler of an event runs in its own transaction, which also records the delivery, so one
+ * failing event never rolls back the rest of the batch and a retry skips the handlers that succeeded.
+ * The first failing handler stops the event's later handlers until the retry.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate handlerTransaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxEventHandler> handlers,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.outbox.batch-size:100}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.retry-backoff:5s}") Duration retryBackoff,
+                            @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.objectMapper = objectMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Drain due events until a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        Integer claimed;
+        do {
+            claimed = batchTransaction.execute(status -> dispatchBatch());
+        } while (claimed != null && claimed == batchSize);
+    }
+
+    /**
+     * Remove delivered events past the retention window
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 4 * * *}")
+    public void purgeProcessed() {
+        Integer deleted = batchTransaction.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Purged {} delivered outbox events", deleted);
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+        for (OutboxEvent event : batch) {
+            try {
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+                deliver(event, payload);
+                event.markDone();
+            } catch (Exception e) {
+                event.markFailed(e, maxAttempts, retryBackoff);
+                if (event.getStatus() == OutboxEvent.OutboxStatus.DEAD) {
+                    log.error("Outbox event {} ({} for {} {}) failed permanently after {} attempts",
+                            event.getId(), event.getEventType(), event.getAggregateType(), event.getAggregateId(),
+                            event.getAttempts(), e);
+                } else {
+                    log.warn("Outbox event {} failed (attempt {}), retrying at {}: {}",
+                            event.getId(), event.getAttempts(), event.getAvailableAt(), e.getMessage());
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    private void deliver(OutboxEvent event, Map<String, Object> payload) {
+        // Only a retried event can have deliveries recorded
+        Set<String> delivered = event.getAttempts() > 0
+                ? Set.copyOf(outboxEventRepository.findDeliveredHandlers(event.getId()))
+                : Set.of();
+        for (OutboxEventHandler handler : handlers) {
+            if (!handler.supports(event.getAggregateType(), event.getEventType()) || delivered.contains(handler.name())) {
+                continue;
+            }
+            handlerTransaction.executeWithoutResult(status -> {
+                handler.handle(event, payload);
+                outboxEventRepository.markDelivered(event.getId(), handler.name());
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+
+/**
+ * In-process consumer of outbox events.
+ * Handlers of an event run one after another in {@code @Order} order, each in its own transaction
+ * that also records its delivery, so a retried event only reaches the handlers that have not handled
+ * it yet. Delivery is still at-least-once (a side effect may happen just before its transaction fails
+ * to commit), so implementations must tolerate seeing the same event twice.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * Whether this handler wants events of the given aggregate and event type
+     */
+    boolean supports(String aggregateType, String eventType);
+
+    /**
+     * Handle an event; throwing rolls back this handler's work, skips the handlers after it and
+     * schedules a retry of the event
+     */
+    void handle(OutboxEvent event, Map<String, Object> payload);
+
+    /**
+     * Name under which deliveries to this handler are recorded
+     */
+    default String name() {
+        return ClassUtils.getUserClass(this).getSimpleName();
+    }
+}
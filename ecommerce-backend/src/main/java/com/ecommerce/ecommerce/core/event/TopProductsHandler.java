@@ -0,0 +1,68 @@
+package com.ecommerce.ecommerce.core.event;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OrderItem;
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import com.ecommerce.ecommerce.core.service.OutboxService;
+import com.ecommerce.ecommerce.core.service.TopProductsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feeds order sales into the cached top-selling products.
+ * Orders count while they are not cancelled or refunded, matching the top products query.
+ * The delta is applied after the handler transaction commits, once per event.
+ */
+@Component
+@RequiredArgsConstructor
+public class TopProductsHandler implements OutboxEventHandler {
+
+    private static final Set<Order.OrderStatus> EXCLUDED =
+            EnumSet.of(Order.OrderStatus.CANCELLED, Order.OrderStatus.REFUNDED);
+
+    private final OrderRepository orderRepository;
+    private final TopProductsService topProductsService;
+
+    @Override
+    public boolean supports(String aggregateType, String eventType) {
+        return OutboxService.AGGREGATE_ORDER.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        int sign = sign(payload.get("previousStatus"), payload.get("status"));
+        if (sign == 0) {
+            return;
+        }
+        Order order = orderRepository.findById(event.getAggregateId()).orElse(null);
+        if (order == null) {
+            return;
+        }
+
+        Map<Long, Long> units = new HashMap<>();
+        Map<Long, BigDecimal> revenue = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Long productId = item.getProduct().getId();
+            units.merge(productId, (long) sign * item.getQuantity(), Long::sum);
+            revenue.merge(productId, item.getDiscountedTotalPrice().multiply(BigDecimal.valueOf(sign)), BigDecimal::add);
+        }
+        topProductsService.recordSalesAfterCommit(event.getId(), units, revenue);
+    }
+
+    /**
+     * +1 when the order starts counting, -1 when it stops, 0 otherwise
+     */
+    private static int sign(Object previousStatus, Object status) {
+        boolean counted = status != null && !EXCLUDED.contains(Order.OrderStatus.valueOf(status.toString()));
+        boolean wasCounted = previousStatus != null
+                && !EXCLUDED.contains(Order.OrderStatus.valueOf(previousStatus.toString()));
+        return Boolean.compare(counted, wasCounted);
+    }
+}
@@ -40,6 +40,9 @@ public enum ErrorCode {
     PAYMENT_FAILED(HttpStatus.PAYMENT_REQUIRED, "E300", "Payment failed"),
     INSUFFICIENT_STOCK(HttpStatus.BAD_REQUEST, "E301", "Insufficient stock available"),
     DUPLICATE_ENTRY(HttpStatus.CONFLICT, "E302", "Duplicate entry found"),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "E303", "Idempotency key was already used for a different request"),
+    IDEMPOTENT_REQUEST_IN_PROGRESS(HttpStatus.CONFLICT, "E304", "A request with this idempotency key is still in progress"),
+    CART_NOT_SAVED(HttpStatus.SERVICE_UNAVAILABLE, "E305", "Cart could not be saved before checkout, please retry"),
 
     // Authentication/Authorization errors
     UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "E400", "Unauthorized access"),
@@ -0,0 +1,9 @@
+package com.ecommerce.ecommerce.core.repository;
+
+import com.ecommerce.ecommerce.core.domain.entity.AnalyticsReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsReportRepository extends JpaRepository<AnalyticsReport, String> {
+}
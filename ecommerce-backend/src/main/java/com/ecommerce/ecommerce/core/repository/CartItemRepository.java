@@ -3,6 +3,10 @@ package com.ecommerce.ecommerce.core.repository;
 import com.ecommerce.ecommerce.core.domain.entity.CartItem;
 import com.ecommerce.ecommerce.core.domain.entity.Product;
 import com.ecommerce.ecommerce.core.domain.entity.User;
+import com.ecommerce.ecommerce.core.domain.projection.AbandonedCart;
+import com.ecommerce.ecommerce.core.domain.projection.CartLine;
+import com.ecommerce.ecommerce.core.domain.projection.CartTotals;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,52 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     List<CartItem> findByUserIdOrderByAddedAtDesc(Long userId);
 
+    /**
+     * Find all cart items for a user with their product and variant loaded
+     */
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product LEFT JOIN FETCH ci.productVariant " +
+           "WHERE ci.user.id = :userId ORDER BY ci.addedAt DESC")
+    List<CartItem> findWithProductsByUserId(@Param("userId") Long userId);
+
+    /**
+     * A user's cart lines with the current price, stock and active flags of their products and variants, in one query
+     */
+    @Query("SELECT ci.id AS cartItemId, ci.quantity AS quantity, " +
+           "p.id AS productId, p.name AS productName, p.sku AS productSku, " +
+           "(SELECT MIN(pi.imageUrl) FROM ProductImage pi WHERE pi.product = p AND pi.isPrimary = true) AS productImage, " +
+           "p.price AS productPrice, p.isActive AS productActive, p.stockQuantity AS productStock, " +
+           "v.id AS variantId, v.variantType AS variantType, v.variantValue AS variantValue, " +
+           "v.price AS variantPrice, v.isActive AS variantActive, v.stockQuantity AS variantStock " +
+           "FROM CartItem ci JOIN ci.product p LEFT JOIN ci.productVariant v " +
+           "WHERE ci.user.id = :userId ORDER BY ci.addedAt DESC")
+    List<CartLine> findPricedLinesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Find all cart items of several users
+     */
+    List<CartItem> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Next users with a cart after a user ID, in ID order; the keyset of chunked cart scans
+     */
+    @Query("SELECT DISTINCT ci.user.id FROM CartItem ci WHERE ci.user.id > :afterUserId ORDER BY ci.user.id")
+    List<Long> findUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    /**
+     * Carts of the given users that are idle since a cutoff, were active after a lower bound
+     * and have not been reminded since their last change
+     */
+    @Query("SELECT u.id AS userId, u.email AS email, u.firstName AS firstName, " +
+           "SUM(ci.quantity) AS itemCount, MAX(ci.updatedAt) AS lastActivity " +
+           "FROM CartItem ci JOIN ci.user u LEFT JOIN CartReminder r ON r.userId = u.id " +
+           "WHERE u.id IN :userIds AND u.isActive = true " +
+           "GROUP BY u.id, u.email, u.firstName, r.remindedAt " +
+           "HAVING MAX(ci.updatedAt) < :idleSince AND MAX(ci.updatedAt) >= :activeSince " +
+           "AND (r.remindedAt IS NULL OR r.remindedAt < MAX(ci.updatedAt))")
+    List<AbandonedCart> findAbandonedCarts(@Param("userIds") Collection<Long> userIds,
+                                           @Param("idleSince") LocalDateTime idleSince,
+                                           @Param("activeSince") LocalDateTime activeSince);
+
     /**
      * Find cart item by user and product
      */
@@ -40,6 +91,101 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     Optional<CartItem> findByUserAndProductAndProductVariant(User user, Product product, com.ecommerce.ecommerce.core.domain.entity.ProductVariant productVariant);
 
+    /**
+     * Find the cart line of a product and variant; variantKey is the variant ID, or 0 for none
+     */
+    @Query("SELECT ci FROM CartItem ci WHERE ci.user.id = :userId AND ci.product.id = :productId " +
+           "AND COALESCE(ci.productVariant.id, 0) = :variantKey")
+    Optional<CartItem> findLine(@Param("userId") Long userId,
+                                @Param("productId") Long productId,
+                                @Param("variantKey") Long variantKey);
+
+    /**
+     * Add to the quantity of a cart line, creating it if missing; variantKey is the variant ID, or 0 for none
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, product_variant_id, quantity, added_at, created_at, updated_at) " +
+           "VALUES (:userId, :productId, NULLIF(:variantKey, 0), :quantity, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (user_id, product_id, (COALESCE(product_variant_id, 0))) DO UPDATE SET " +
+           "quantity = cart_items.quantity + EXCLUDED.quantity, " +
+           "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int addQuantity(@Param("userId") Long userId,
+                    @Param("productId") Long productId,
+                    @Param("variantKey") Long variantKey,
+                    @Param("quantity") Integer quantity);
+
+    /**
+     * Insert cart lines or set the quantity of existing ones in one statement.
+     * The arrays are parallel, one element per line; a variant key of 0 means no variant.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, product_variant_id, quantity, added_at, created_at, updated_at) " +
+           "SELECT :userId, line.product_id, NULLIF(line.variant_key, 0), line.quantity, " +
+           "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+           "FROM unnest(CAST(:productIds AS bigint[]), CAST(:variantKeys AS bigint[]), CAST(:quantities AS integer[])) " +
+           "AS line(product_id, variant_key, quantity) " +
+           "ON CONFLICT (user_id, product_id, (COALESCE(product_variant_id, 0))) DO UPDATE SET " +
+           "quantity = EXCLUDED.quantity, " +
+           "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int upsertLines(@Param("userId") Long userId,
+                    @Param("productIds") Long[] productIds,
+                    @Param("variantKeys") Long[] variantKeys,
+                    @Param("quantities") Integer[] quantities);
+
+    /**
+     * Upsert cart lines of one user, each with its product, optional variant and quantity set
+     */
+    default int upsertLines(Long userId, Collection<CartItem> lines) {
+        LineArrays arrays = LineArrays.of(lines);
+        return upsertLines(userId, arrays.productIds(), arrays.variantKeys(), arrays.quantities());
+    }
+
+    /**
+     * Insert cart lines or add to the quantity of existing ones in one statement, e.g. when a guest cart
+     * is merged at login. The arrays are parallel, one element per line; a variant key of 0 means no variant.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, product_variant_id, quantity, added_at, created_at, updated_at) " +
+           "SELECT :userId, line.product_id, NULLIF(line.variant_key, 0), line.quantity, " +
+           "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+           "FROM unnest(CAST(:productIds AS bigint[]), CAST(:variantKeys AS bigint[]), CAST(:quantities AS integer[])) " +
+           "AS line(product_id, variant_key, quantity) " +
+           "ON CONFLICT (user_id, product_id, (COALESCE(product_variant_id, 0))) DO UPDATE SET " +
+           "quantity = cart_items.quantity + EXCLUDED.quantity, " +
+           "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int mergeLines(@Param("userId") Long userId,
+                   @Param("productIds") Long[] productIds,
+                   @Param("variantKeys") Long[] variantKeys,
+                   @Param("quantities") Integer[] quantities);
+
+    /**
+     * Merge cart lines into one user's cart, summing quantities with lines already there
+     */
+    default int mergeLines(Long userId, Collection<CartItem> lines) {
+        LineArrays arrays = LineArrays.of(lines);
+        return mergeLines(userId, arrays.productIds(), arrays.variantKeys(), arrays.quantities());
+    }
+
+    /**
+     * Cart lines as the parallel arrays bound by the bulk upserts
+     */
+    record LineArrays(Long[] productIds, Long[] variantKeys, Integer[] quantities) {
+
+        static LineArrays of(Collection<CartItem> lines) {
+            Long[] productIds = new Long[lines.size()];
+            Long[] variantKeys = new Long[lines.size()];
+            Integer[] quantities = new Integer[lines.size()];
+            int i = 0;
+            for (CartItem line : lines) {
+                productIds[i] = line.getProduct().getId();
+                variantKeys[i] = line.getProductVariant() != null ? line.getProductVariant().getId() : 0L;
+                quantities[i] = line.getQuantity();
+                i++;
+            }
+            return new LineArrays(productIds, variantKeys, quantities);
+        }
+    }
+
     /**
      * Count cart items for a user
      */
@@ -68,6 +214,15 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
            "FROM CartItem ci WHERE ci.user.id = :userId")
     java.math.BigDecimal getTotalValueByUser(@Param("userId") Long userId);
 
+    /**
+     * Item count, subtotal and last change of a user's cart in one query
+     */
+    @Query("SELECT COALESCE(SUM(ci.quantity), 0) AS itemCount, " +
+           "COALESCE(SUM(ci.quantity * CASE WHEN v IS NOT NULL THEN v.price ELSE p.price END), 0) AS subtotal, " +
+           "MAX(ci.updatedAt) AS lastModified " +
+           "FROM CartItem ci JOIN ci.product p LEFT JOIN ci.productVariant v WHERE ci.user.id = :userId")
+    CartTotals getTotalsByUser(@Param("userId") Long userId);
+
     /**
      * Remove all cart items for a user
      */
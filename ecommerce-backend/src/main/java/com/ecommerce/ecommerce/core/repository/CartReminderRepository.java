@@ -0,0 +1,21 @@
+package com.ecommerce.ecommerce.core.repository;
+
+import com.ecommerce.ecommerce.core.domain.entity.CartReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CartReminderRepository extends JpaRepository<CartReminder, Long> {
+
+    /**
+     * Record a reminder for several users in one statement
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_reminders (user_id, reminded_at) " +
+           "SELECT user_id, CURRENT_TIMESTAMP FROM unnest(CAST(:userIds AS bigint[])) AS reminded(user_id) " +
+           "ON CONFLICT (user_id) DO UPDATE SET reminded_at = EXCLUDED.reminded_at", nativeQuery = true)
+    int markReminded(@Param("userIds") Long[] userIds);
+}
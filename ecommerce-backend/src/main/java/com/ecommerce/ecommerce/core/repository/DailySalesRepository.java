@@ -0,0 +1,97 @@
+package com.ecommerce.ecommerce.core.repository;
+
+import com.ecommerce.ecommerce.core.domain.entity.DailySales;
+import com.ecommerce.ecommerce.core.domain.projection.SalesTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for the daily_sales rollup.
+ */
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, DailySales.DailySalesId> {
+
+  /**
+   * Add (or with negative deltas, subtract) an order's contribution to a day/status bucket
+   */
+  @Modifying
+  @Query(value = "INSERT INTO daily_sales (sales_date, status, order_count, revenue, items_sold, updated_at) " +
+         "VALUES (:salesDate, :status, :orderCount, :revenue, :itemsSold, CURRENT_TIMESTAMP) " +
+         "ON CONFLICT (sales_date, status) DO UPDATE SET " +
+         "order_count = daily_sales.order_count + EXCLUDED.order_count, " +
+         "revenue = daily_sales.revenue + EXCLUDED.revenue, " +
+         "items_sold = daily_sales.items_sold + EXCLUDED.items_sold, " +
+         "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+  int applyDelta(@Param("salesDate") LocalDate salesDate,
+                 @Param("status") String status,
+                 @Param("orderCount") long orderCount,
+                 @Param("revenue") BigDecimal revenue,
+                 @Param("itemsSold") long itemsSold);
+
+  /**
+   * Totals for days in [fromDate, toDate)
+   */
+  @Query(value = "SELECT COALESCE(SUM(CASE WHEN d.status NOT IN ('CANCELLED', 'REFUNDED') THEN d.revenue END), 0) AS revenue, " +
+         "COALESCE(SUM(d.order_count), 0) AS orderCount, " +
+         "COALESCE(SUM(CASE WHEN d.status NOT IN ('CANCELLED', 'REFUNDED') THEN d.items_sold END), 0) AS itemsSold " +
+         "FROM daily_sales d WHERE d.sales_date >= :fromDate AND d.sales_date < :toDate", nativeQuery = true)
+  SalesTotals getTotals(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  /**
+   * All-time totals
+   */
+  @Query(value = "SELECT COALESCE(SUM(CASE WHEN d.status NOT IN ('CANCELLED', 'REFUNDED') THEN d.revenue END), 0) AS revenue, " +
+         "COALESCE(SUM(d.order_count), 0) AS orderCount, " +
+         "COALESCE(SUM(CASE WHEN d.status NOT IN ('CANCELLED', 'REFUNDED') THEN d.items_sold END), 0) AS itemsSold " +
+         "FROM daily_sales d", nativeQuery = true)
+  SalesTotals getAllTimeTotals();
+
+  /**
+   * Order count per status for days in [fromDate, toDate)
+   */
+  @Query(value = "SELECT d.status, SUM(d.order_count) FROM daily_sales d " +
+         "WHERE d.sales_date >= :fromDate AND d.sales_date < :toDate GROUP BY d.status", nativeQuery = true)
+  List<Object[]> getStatusCounts(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  /**
+   * Monthly order count and revenue (excluding cancelled/refunded) since fromDate
+   */
+  @Query(value = "SELECT DATE_TRUNC('month', d.sales_date) AS month, " +
+         "SUM(d.order_count) AS order_count, " +
+         "COALESCE(SUM(d.revenue), 0) AS total_revenue " +
+         "FROM daily_sales d " +
+         "WHERE d.sales_date >= :fromDate AND d.status NOT IN ('CANCELLED', 'REFUNDED') " +
+         "GROUP BY DATE_TRUNC('month', d.sales_date) " +
+         "ORDER BY month", nativeQuery = true)
+  List<Object[]> getMonthlySales(@Param("fromDate") LocalDate fromDate);
+
+  /**
+   * Remove rollup rows for days in [fromDate, toDate) before a rebuild
+   */
+  @Modifying
+  @Query(value = "DELETE FROM daily_sales WHERE sales_date >= :fromDate AND sales_date < :toDate", nativeQuery = true)
+  int deleteRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  /**
+   * Recompute rollup rows for days in [fromDate, toDate) from orders; the created_at range prunes partitions
+   */
+  @Modifying
+  @Query(value = "INSERT INTO daily_sales (sales_date, status, order_count, revenue, items_sold, updated_at) " +
+         "SELECT CAST(o.created_at AS DATE), o.status, COUNT(*), COALESCE(SUM(o.total_amount), 0), " +
+         "COALESCE(SUM(i.items), 0), CURRENT_TIMESTAMP " +
+         "FROM orders o " +
+         "LEFT JOIN (SELECT order_id, order_created_at, SUM(quantity) AS items FROM order_items " +
+         "           WHERE order_created_at >= :fromDate AND order_created_at < :toDate " +
+         "           GROUP BY order_id, order_created_at) i " +
+         "ON i.order_id = o.id AND i.order_created_at = o.created_at " +
+         "WHERE o.created_at >= :fromDate AND o.created_at < :toDate " +
+         "GROUP BY CAST(o.created_at AS DATE), o.status", nativeQuery = true)
+  int rebuildRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.ecommerce.core.repository;
+
+import com.ecommerce.ecommerce.core.domain.entity.JobProgress;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobProgressRepository extends JpaRepository<JobProgress, String> {
+
+    /**
+     * Create the progress row of a job unless it exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_progress (job_name) VALUES (:jobName) ON CONFLICT (job_name) DO NOTHING", nativeQuery = true)
+    int createIfMissing(@Param("jobName") String jobName);
+
+    /**
+     * Lock the progress row of a job, so nodes running the same job process chunks one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM JobProgress j WHERE j.jobName = :jobName")
+    Optional<JobProgress> lockByJobName(@Param("jobName") String jobName);
+}
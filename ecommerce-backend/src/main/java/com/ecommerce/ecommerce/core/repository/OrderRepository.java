@@ -1,17 +1,25 @@
 package com.ecommerce.ecommerce.core.repository;
 
 import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.projection.CohortOrderRow;
+import com.ecommerce.ecommerce.core.domain.projection.OrderSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity operations.
@@ -25,6 +33,33 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    */
   Page<Order> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
 
+  /**
+   * First page of a user's order history as summary rows, newest first (seeks idx_order_user_created_id)
+   * The item count also matches order_items on the order's created_at so only its partition is probed
+   */
+  @Query("SELECT o.id AS id, o.orderNumber AS orderNumber, o.createdAt AS createdAt, o.totalAmount AS totalAmount, " +
+         "o.currency AS currency, o.status AS status, " +
+         "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi " +
+         "WHERE oi.order = o AND oi.orderCreatedAt = o.createdAt) AS itemCount " +
+         "FROM Order o WHERE o.user.id = :userId " +
+         "ORDER BY o.createdAt DESC, o.id DESC")
+  List<OrderSummary> findOrderSummariesByUser(@Param("userId") Long userId, Pageable pageable);
+
+  /**
+   * Next page of a user's order history after the (createdAt, id) keyset cursor
+   */
+  @Query("SELECT o.id AS id, o.orderNumber AS orderNumber, o.createdAt AS createdAt, o.totalAmount AS totalAmount, " +
+         "o.currency AS currency, o.status AS status, " +
+         "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi " +
+         "WHERE oi.order = o AND oi.orderCreatedAt = o.createdAt) AS itemCount " +
+         "FROM Order o WHERE o.user.id = :userId " +
+         "AND o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id) " +
+         "ORDER BY o.createdAt DESC, o.id DESC")
+  List<OrderSummary> findOrderSummariesByUserAfter(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
   /**
    * Find orders by status with pagination
    */
@@ -41,9 +76,9 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
   List<Order> findByOrderNumber(String orderNumber);
 
   /**
-   * Find orders within date range
+   * Find orders within date range [startDate, endDate)
    */
-  @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate ORDER BY o.createdAt DESC")
+  @Query("SELECT o FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate ORDER BY o.createdAt DESC")
   List<Order> findByDateRange(@Param("startDate") LocalDateTime startDate,
                               @Param("endDate") LocalDateTime endDate);
 
@@ -55,7 +90,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
   /**
    * Find pending orders (for processing)
    */
-  @Query(value = "SELECT o FROM Order o WHERE o.status IN ('PENDING', 'CONFIRMED') ORDER BY o.createdAt ASC", nativeQuery = true)
+  @Query("SELECT o FROM Order o WHERE o.status IN ('PENDING', 'CONFIRMED') ORDER BY o.createdAt ASC")
   List<Order> findPendingOrders(Pageable pageable);
 
   /**
@@ -71,19 +106,38 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    */
   long countByStatus(Order.OrderStatus status);
 
+  /**
+   * Stream every counted order of a customer, grouped by customer, for cohort analytics.
+   * Forward-only and fetched in batches; callers must close the stream inside a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(value = "SELECT o.user_id AS userId, " +
+         "       CAST(EXTRACT(YEAR FROM u.created_at) * 12 + EXTRACT(MONTH FROM u.created_at) - 1 AS INTEGER) AS signupMonth, " +
+         "       CAST(EXTRACT(YEAR FROM o.created_at) * 12 + EXTRACT(MONTH FROM o.created_at) - 1 AS INTEGER) AS orderMonth, " +
+         "       CAST(ROUND(o.total_amount * 100) AS BIGINT) AS amountCents " +
+         "FROM orders o JOIN users u ON u.id = o.user_id " +
+         "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND u.role = 'USER' " +
+         "ORDER BY o.user_id", nativeQuery = true)
+  Stream<CohortOrderRow> streamOrdersForCohorts();
+
+  /**
+   * Count orders for every status in a single GROUP BY pass, as [OrderStatus, Long] rows
+   */
+  @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+  List<Object[]> countGroupedByStatus();
+
   /**
    * Count orders by payment status
    */
   long countByPaymentStatus(Order.PaymentStatus paymentStatus);
 
   /**
-   * Get total sales amount for date range
+   * Get total sales amount for date range [startDate, endDate)
    */
-  @Query(value = "SELECT SUM(o.totalAmount) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.createdAt BETWEEN :startDate AND :endDate", nativeQuery = true)
-  default BigDecimal getTotalSalesAmount(@Param("startDate") LocalDateTime startDate,
-                                         @Param("endDate") LocalDateTime endDate) {
-    return null;
-  }
+  @Query(value = "SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o " +
+         "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.created_at >= :startDate AND o.created_at < :endDate", nativeQuery = true)
+  BigDecimal getTotalSalesAmount(@Param("startDate") LocalDateTime startDate,
+                                 @Param("endDate") LocalDateTime endDate);
 
   /**
    * Get order statistics by date
@@ -106,25 +160,27 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
   /**
    * Get total revenue from all completed orders
    */
-  @Query(value = "SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')", nativeQuery = true)
+  @Query(value = "SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')", nativeQuery = true)
   Optional<BigDecimal> getTotalRevenue();
 
   /**
-   * Get revenue for a specific period
+   * Get revenue for a specific period [startDate, endDate); the half-open range on the
+   * partition key lets the planner prune months outside the period
    */
-  @Query(value = "SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.createdAt BETWEEN :startDate AND :endDate", nativeQuery = true)
+  @Query(value = "SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o " +
+         "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.created_at >= :startDate AND o.created_at < :endDate", nativeQuery = true)
   Optional<BigDecimal> getRevenueForPeriod(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
   /**
-   * Count orders for a specific period
+   * Count orders for a specific period [startDate, endDate)
    */
-  @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
+  @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
   Long countOrdersForPeriod(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
   /**
    * Get average delivery time in days
    */
-  @Query(value = "SELECT AVG(DATEDIFF(o.deliveredDate, o.createdAt)) FROM Order o WHERE o.deliveredDate IS NOT NULL", nativeQuery = true)
+  @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (o.delivered_date - o.created_at)) / 86400) FROM orders o WHERE o.delivered_date IS NOT NULL", nativeQuery = true)
   Optional<Double> getAverageDeliveryTime();
 
   /**
@@ -143,4 +199,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
          "GROUP BY DATE_TRUNC('month', o.created_at) " +
          "ORDER BY month", nativeQuery = true)
   List<Object[]> getMonthlySalesData(@Param("startDate") LocalDateTime startDate);
+
+  /**
+   * Create monthly orders/order_items partitions starting at fromMonth; returns how many were created
+   */
+  @Query(value = "SELECT create_order_partitions(CAST(:fromMonth AS DATE), :months)", nativeQuery = true)
+  Integer createPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("months") int months);
+
+  /**
+   * Record whether stock is reserved for an order; returns 0 when it already was in that state
+   */
+  @Modifying
+  @Query("UPDATE Order o SET o.stockReserved = :reserved WHERE o.id = :orderId AND o.stockReserved <> :reserved")
+  int markStockReserved(@Param("orderId") Long orderId, @Param("reserved") boolean reserved);
 }
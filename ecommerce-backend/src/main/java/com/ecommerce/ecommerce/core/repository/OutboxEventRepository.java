@@ -0,0 +1,57 @@
+package com.ecommerce.ecommerce.core.repository;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity operations.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  /**
+   * Claim the next batch of due events, skipping rows locked by other dispatchers.
+   * An event is only eligible when no earlier event of the same aggregate is still pending,
+   * which keeps delivery ordered per order. Ids come from the sequence one per insert, so they
+   * follow insert order across nodes.
+   */
+  @Query(value = "SELECT * FROM outbox o " +
+         "WHERE o.status = 'PENDING' AND o.available_at <= CURRENT_TIMESTAMP " +
+         "AND NOT EXISTS (SELECT 1 FROM outbox p WHERE p.status = 'PENDING' " +
+         "AND p.aggregate_type = o.aggregate_type AND p.aggregate_id = o.aggregate_id AND p.id < o.id) " +
+         "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+  /**
+   * Handlers that already handled an event
+   */
+  @Query(value = "SELECT d.handler FROM outbox_deliveries d WHERE d.event_id = :eventId", nativeQuery = true)
+  List<String> findDeliveredHandlers(@Param("eventId") Long eventId);
+
+  /**
+   * Record that a handler handled an event, in the handler's transaction
+   */
+  @Modifying
+  @Query(value = "INSERT INTO outbox_deliveries (event_id, handler) VALUES (:eventId, :handler) " +
+         "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int markDelivered(@Param("eventId") Long eventId, @Param("handler") String handler);
+
+  /**
+   * Count events by status
+   */
+  long countByStatus(OutboxEvent.OutboxStatus status);
+
+  /**
+   * Delete delivered events older than the cutoff
+   */
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.status = 'DONE' AND e.processedAt < :cutoff")
+  int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
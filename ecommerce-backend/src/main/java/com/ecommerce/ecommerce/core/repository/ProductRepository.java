@@ -1,14 +1,18 @@
 package com.ecommerce.ecommerce.core.repository;
 
 import com.ecommerce.ecommerce.core.domain.entity.Product;
+import com.ecommerce.ecommerce.core.domain.projection.CatalogLine;
+import com.ecommerce.ecommerce.core.domain.projection.TopSellingProduct;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,13 +65,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Find products in stock
      */
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.stockQuantity > 0")
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.inStock = true")
     Page<Product> findInStockProducts(Pageable pageable);
 
     /**
      * Find products out of stock
      */
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND (p.stockQuantity IS NULL OR p.stockQuantity <= 0)")
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.inStock = false")
     List<Product> findOutOfStockProducts();
 
     /**
@@ -98,7 +102,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
            "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-           "AND (:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND (p.stockQuantity IS NULL OR p.stockQuantity <= 0))) " +
+           "AND (:inStock IS NULL OR p.inStock = :inStock) " +
            "AND (:searchTerm IS NULL OR " +
            "   LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "   LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
@@ -141,6 +145,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Long countByStockQuantity(Integer stockQuantity);
 
+    /**
+     * Count active products whose availability rollup is out of stock
+     */
+    Long countByIsActiveTrueAndInStockFalse();
+
     /**
      * Find top selling product (simplified version)
      */
@@ -158,13 +167,79 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findTop10ByOrderByTotalSoldDesc();
 
     /**
-     * Find top selling products (by order count)
-     */
-    @Query(value = "SELECT p, SUM(oi.quantity) as totalSold FROM Product p " +
-           "JOIN p.orderItems oi " +
-           "JOIN oi.order o " +
-           "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') " +
-           "GROUP BY p " +
-           "ORDER BY totalSold DESC",nativeQuery = true)
-    List<Product> findTopSellingProducts(Pageable pageable);
+     * Top selling products by units sold, aggregated and enriched with category, primary image
+     * and average approved rating in a single statement. Only the top rows are joined to products.
+     */
+    @Query(value = "WITH sales AS (" +
+           "  SELECT oi.product_id, SUM(oi.quantity) AS units_sold, " +
+           "         SUM(oi.unit_price * oi.quantity - COALESCE(oi.discount_amount, 0)) AS revenue " +
+           "  FROM order_items oi " +
+           "  JOIN orders o ON o.id = oi.order_id AND o.created_at = oi.order_created_at " +
+           "  WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') " +
+           "  GROUP BY oi.product_id " +
+           "  ORDER BY units_sold DESC, oi.product_id " +
+           "  LIMIT :limit) " +
+           "SELECT p.id AS productId, p.name AS productName, COALESCE(c.name, 'N/A') AS categoryName, " +
+           "       img.image_url AS productImage, s.units_sold AS unitsSold, s.revenue AS revenue, " +
+           "       COALESCE(r.average_rating, 0) AS averageRating " +
+           "FROM sales s " +
+           "JOIN products p ON p.id = s.product_id " +
+           "LEFT JOIN categories c ON c.id = p.category_id " +
+           "LEFT JOIN LATERAL (SELECT pi.image_url FROM product_images pi WHERE pi.product_id = p.id " +
+           "                   ORDER BY pi.is_primary DESC, pi.sort_order NULLS LAST, pi.id LIMIT 1) img ON TRUE " +
+           "LEFT JOIN LATERAL (SELECT ROUND(AVG(rv.rating), 2) AS average_rating FROM reviews rv " +
+           "                   WHERE rv.product_id = p.id AND rv.status = 'APPROVED') r ON TRUE " +
+           "ORDER BY s.units_sold DESC, p.id", nativeQuery = true)
+    List<TopSellingProduct> findTopSellingProducts(@Param("limit") int limit);
+
+    /**
+     * Lock a product row so its availability rollup can be recomputed without racing other variant updates.
+     * Returns the rollup value before the recompute.
+     */
+    @Query(value = "SELECT available_stock FROM products WHERE id = :productId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockForAvailabilityUpdate(@Param("productId") Long productId);
+
+    /**
+     * Recompute the availability rollup for a single product from its active variants
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products p SET " +
+           "available_stock = COALESCE((SELECT SUM(v.stock_quantity) FROM product_variants v " +
+           "   WHERE v.product_id = p.id AND v.is_active = true), p.stock_quantity, 0), " +
+           "in_stock = COALESCE((SELECT SUM(v.stock_quantity) FROM product_variants v " +
+           "   WHERE v.product_id = p.id AND v.is_active = true), p.stock_quantity, 0) > 0 " +
+           "WHERE p.id = :productId", nativeQuery = true)
+    int refreshAvailability(@Param("productId") Long productId);
+
+    /**
+     * Repair every availability rollup that drifted from the variant data, returns the number of fixed rows
+     */
+    @Modifying
+    @Query(value = "UPDATE products p SET available_stock = r.total, in_stock = r.total > 0 " +
+           "FROM (SELECT p2.id, COALESCE(v.total_stock, p2.stock_quantity, 0) AS total " +
+           "      FROM products p2 " +
+           "      LEFT JOIN (SELECT product_id, SUM(stock_quantity) AS total_stock FROM product_variants " +
+           "                 WHERE is_active = true GROUP BY product_id) v ON v.product_id = p2.id) r " +
+           "WHERE p.id = r.id AND (p.available_stock <> r.total OR p.in_stock <> (r.total > 0))", nativeQuery = true)
+    int repairAvailability();
+
+    /**
+     * Get the availability rollup for a product
+     */
+    @Query("SELECT p.availableStock FROM Product p WHERE p.id = :productId")
+    Optional<Integer> findAvailableStockById(@Param("productId") Long productId);
+
+    /**
+     * Current price, stock and active flags of products and the requested variants, in one query.
+     * One row per product and requested variant of it, or a single row with no variant columns.
+     */
+    @Query("SELECT p.id AS productId, p.name AS productName, p.sku AS productSku, " +
+           "(SELECT MIN(pi.imageUrl) FROM ProductImage pi WHERE pi.product = p AND pi.isPrimary = true) AS productImage, " +
+           "p.price AS productPrice, p.isActive AS productActive, p.stockQuantity AS productStock, " +
+           "v.id AS variantId, v.variantType AS variantType, v.variantValue AS variantValue, " +
+           "v.price AS variantPrice, v.isActive AS variantActive, v.stockQuantity AS variantStock " +
+           "FROM Product p LEFT JOIN ProductVariant v ON v.product = p AND v.id IN :variantIds " +
+           "WHERE p.id IN :productIds")
+    List<CatalogLine> findCatalogLines(@Param("productIds") Collection<Long> productIds,
+                                       @Param("variantIds") Collection<Long> variantIds);
 }
@@ -5,6 +5,7 @@ import com.ecommerce.ecommerce.core.domain.entity.ProductVariant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -139,6 +140,7 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     /**
      * Update stock for a variant
      */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("UPDATE ProductVariant pv SET pv.stockQuantity = :stockQuantity WHERE pv.id = :variantId")
     void updateStock(@Param("variantId") Long variantId, @Param("stockQuantity") Integer stockQuantity);
 
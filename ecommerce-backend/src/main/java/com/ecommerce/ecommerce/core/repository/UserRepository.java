@@ -116,6 +116,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Long countByIsActiveTrue();
 
+    /**
+     * Customers per signup month, as [month index (year * 12 + month - 1), count] rows
+     */
+    @Query(value = "SELECT CAST(EXTRACT(YEAR FROM created_at) * 12 + EXTRACT(MONTH FROM created_at) - 1 AS INTEGER) AS month, " +
+           "COUNT(*) FROM users WHERE role = 'USER' GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> countCustomersBySignupMonth();
+
     /**
      * Count users created between two dates
      */
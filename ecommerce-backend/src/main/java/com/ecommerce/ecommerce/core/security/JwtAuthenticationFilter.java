@@ -1,9 +1,9 @@
 package com.ecommerce.ecommerce.core.security;
 
 import com.ecommerce.ecommerce.core.service.TokenBlacklistService;
-import com.ecommerce.ecommerce.core.service.UserService;
-import com.ecommerce.ecommerce.core.service.UserServiceProvider;
+import com.ecommerce.ecommerce.core.service.UserPrincipalCache;
 import com.ecommerce.ecommerce.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,13 +19,16 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String ACCESS_TOKEN_COOKIE = "accessToken";
+
     private final JwtUtil jwtUtil;
-    private final UserServiceProvider userService;
+    private final UserPrincipalCache principalCache;
     private final TokenBlacklistService blacklistService;
 
     @Override
@@ -36,10 +39,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             logger.info("parsed jwt ");
-            if (jwt != null && jwtUtil.validateJwtToken(jwt) && !blacklistService.isTokenBlacklisted(jwt)) {
-                String username = jwtUtil.getUserNameFromJwtToken(jwt);
+            // Parse and verify once; the claims come from JwtUtil's cache once a token has been seen
+            Optional<Claims> claims = jwt != null ? jwtUtil.parseAndValidate(jwt) : Optional.empty();
+            if (claims.isPresent() && !blacklistService.isTokenBlacklisted(jwt)) {
+                String username = claims.get().getSubject();
                 logger.info("validated jwt : " + jwt);
-                UserDetails userDetails = userService.loadUserByUsername(username);
+                UserDetails userDetails = principalCache.load(username);
                 UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(userDetails,
                                                            null,
@@ -62,7 +67,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
             for (Cookie cookie : cookies) {
-                if ("accessToken".equals(cookie.getName())) {
+                if (ACCESS_TOKEN_COOKIE.equals(cookie.getName())) {
                     accessToken = cookie.getValue();
                     return accessToken;
                 }
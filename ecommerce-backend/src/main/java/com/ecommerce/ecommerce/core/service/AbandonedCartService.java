@@ -0,0 +1,159 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.domain.entity.JobProgress;
+import com.ecommerce.ecommerce.core.domain.projection.AbandonedCart;
+import com.ecommerce.ecommerce.core.event.CartEventType;
+import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import com.ecommerce.ecommerce.core.repository.CartReminderRepository;
+import com.ecommerce.ecommerce.core.repository.JobProgressRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduled scan for abandoned carts: carts idle for app.cart.abandoned.idle get one reminder email.
+ * cart_items is walked in keyset chunks of users, each chunk in its own short transaction that finds
+ * the idle carts among those users, queues their reminders through the outbox in one batch and commits
+ * the cursor in job_progress. A run interrupted midway resumes from the committed cursor with the same
+ * cutoff; the progress row is locked per chunk, so nodes running the scan never process a chunk twice.
+ * A run that finished during the current cron period is not followed by another, so the nodes that
+ * waited on the lock while it ran do not scan again.
+ */
+@Service
+@Slf4j
+public class AbandonedCartService {
+
+    private static final String JOB_NAME = "abandoned-carts";
+    private static final int CHUNK_TIMEOUT_SECONDS = 60;
+
+    private final CartItemRepository cartItemRepository;
+    private final CartReminderRepository cartReminderRepository;
+    private final JobProgressRepository jobProgressRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate chunkTransaction;
+    private final boolean enabled;
+    private final CronExpression schedule;
+    private final Duration idle;
+    private final Duration lookback;
+    private final int chunkSize;
+
+    public AbandonedCartService(CartItemRepository cartItemRepository,
+                                CartReminderRepository cartReminderRepository,
+                                JobProgressRepository jobProgressRepository,
+                                OutboxService outboxService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.cart.abandoned.enabled:true}") boolean enabled,
+                                @Value("${app.cart.abandoned.cron:0 0 * * * *}") String cron,
+                                @Value("${app.cart.abandoned.idle:24h}") Duration idle,
+                                @Value("${app.cart.abandoned.lookback:7d}") Duration lookback,
+                                @Value("${app.cart.abandoned.chunk-size:500}") int chunkSize) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartReminderRepository = cartReminderRepository;
+        this.jobProgressRepository = jobProgressRepository;
+        this.outboxService = outboxService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setTimeout(CHUNK_TIMEOUT_SECONDS);
+        this.enabled = enabled;
+        this.schedule = CronExpression.isValidExpression(cron) ? CronExpression.parse(cron) : null;
+        this.idle = idle;
+        this.lookback = lookback;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Start a run, or resume an interrupted one, and process chunks until the keyset is exhausted
+     */
+    @Scheduled(cron = "${app.cart.abandoned.cron:0 0 * * * *}")
+    public void scan() {
+        if (!enabled) {
+            return;
+        }
+        boolean first = true;
+        Boolean more;
+        do {
+            boolean startRun = first;
+            more = chunkTransaction.execute(status -> processChunk(startRun));
+            first = false;
+        } while (Boolean.TRUE.equals(more));
+    }
+
+    /**
+     * Process the next chunk of users; returns whether the run has more chunks
+     */
+    private boolean processChunk(boolean startRun) {
+        jobProgressRepository.createIfMissing(JOB_NAME);
+        JobProgress progress = jobProgressRepository.lockByJobName(JOB_NAME).orElseThrow();
+        if (!progress.isRunning()) {
+            if (!startRun) {
+                // Another node finished the run
+                return false;
+            }
+            if (progress.getFinishedAt() != null && progress.getFinishedAt().isAfter(currentPeriodStart())) {
+                log.debug("Abandoned cart scan already ran this period, finished at {}", progress.getFinishedAt());
+                return false;
+            }
+            progress.start(LocalDateTime.now().minus(idle));
+            log.info("Abandoned cart scan started for carts idle since {}", progress.getRunCutoff());
+        } else if (startRun && progress.getCursorId() > 0) {
+            log.info("Abandoned cart scan resuming after user {}", progress.getCursorId());
+        }
+
+        List<Long> userIds = cartItemRepository.findUserIdsAfter(progress.getCursorId(), PageRequest.of(0, chunkSize));
+        if (!userIds.isEmpty()) {
+            LocalDateTime cutoff = progress.getRunCutoff();
+            List<AbandonedCart> carts = cartItemRepository.findAbandonedCarts(userIds, cutoff, cutoff.minus(lookback));
+            if (!carts.isEmpty()) {
+                enqueueReminders(carts);
+            }
+            progress.advance(userIds.get(userIds.size() - 1), carts.size());
+        }
+        if (userIds.size() < chunkSize) {
+            progress.finish();
+            log.info("Abandoned cart scan finished: {} reminders queued", progress.getProcessed());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * When the scan was last due: the cron period before the next fire time
+     */
+    private LocalDateTime currentPeriodStart() {
+        LocalDateTime now = LocalDateTime.now();
+        if (schedule == null) {
+            return now;
+        }
+        LocalDateTime next = schedule.next(now);
+        LocalDateTime afterNext = next != null ? schedule.next(next) : null;
+        if (afterNext == null) {
+            return now;
+        }
+        return next.minus(Duration.between(next, afterNext));
+    }
+
+    private void enqueueReminders(List<AbandonedCart> carts) {
+        Map<Long, Map<String, Object>> payloads = new LinkedHashMap<>();
+        for (AbandonedCart cart : carts) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("email", cart.getEmail());
+            payload.put("firstName", cart.getFirstName());
+            payload.put("itemCount", cart.getItemCount());
+            payload.put("lastActivity", cart.getLastActivity().toString());
+            payloads.put(cart.getUserId(), payload);
+        }
+        outboxService.publishAll(OutboxService.AGGREGATE_CART, CartEventType.CART_ABANDONED.name(), payloads);
+        cartReminderRepository.markReminded(payloads.keySet().toArray(Long[]::new));
+    }
+}
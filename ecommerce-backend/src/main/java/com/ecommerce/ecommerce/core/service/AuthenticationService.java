@@ -4,11 +4,14 @@ import com.ecommerce.ecommerce.core.domain.entity.User;
 import com.ecommerce.ecommerce.core.exception.BusinessException;
 import com.ecommerce.ecommerce.core.exception.ErrorCode;
 import com.ecommerce.ecommerce.core.repository.UserRepository;
+import com.ecommerce.ecommerce.util.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * Service class for handling authentication-related operations.
@@ -19,6 +22,8 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AuthenticationService {
 
+    private static final String CURRENT_USER = AuthenticationService.class.getName() + ".currentUser";
+
     private final UserRepository userRepository;
 
     /**
@@ -30,6 +35,9 @@ public class AuthenticationService {
         }
 
         Object principal = authentication.getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal && userPrincipal.getId() != null) {
+            return userPrincipal.getId();
+        }
         if (principal instanceof UserDetails userDetails) {
             User user = userRepository.findByEmailOrUsername(userDetails.getUsername(), userDetails.getUsername())
                     .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "User not found"));
@@ -40,12 +48,21 @@ public class AuthenticationService {
     }
 
     /**
-     * Get current authenticated user entity
+     * Get current authenticated user entity, loaded at most once per HTTP request
      */
     public User getCurrentUser(Authentication authentication) {
         String userId = getCurrentUserId(authentication);
-        return userRepository.findById(Long.parseLong(userId))
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(CURRENT_USER, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && userId.equals(user.getId().toString())) {
+            return user;
+        }
+        User user = userRepository.findById(Long.parseLong(userId))
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "User not found"));
+        if (request != null) {
+            request.setAttribute(CURRENT_USER, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 
     /**
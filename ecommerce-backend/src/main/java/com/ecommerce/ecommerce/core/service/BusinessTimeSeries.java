@@ -0,0 +1,134 @@
+package com.ecommerce.ecommerce.core.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * In-process per-minute time series of business events over the last 24 hours.
+ * Every metric is a fixed ring of one slot per minute, so memory does not grow with traffic.
+ * Slots are recycled lazily: a slot still holding an older minute reads as zero and is reset on the next write.
+ * Series are per application instance; the Micrometer gauges let the metrics backend sum across nodes.
+ */
+@Component
+public class BusinessTimeSeries {
+
+    public static final int MINUTES = 24 * 60;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    /** Revenue is stored in cents so every series is a plain long ring */
+    private static final int REVENUE_SCALE = 2;
+
+    public enum Metric {
+        ORDERS, REVENUE, SIGNUPS, ADD_TO_CARTS
+    }
+
+    private final Map<Metric, Ring> rings = new EnumMap<>(Metric.class);
+
+    public BusinessTimeSeries(MeterRegistry meterRegistry) {
+        for (Metric metric : Metric.values()) {
+            Ring ring = new Ring();
+            rings.put(metric, ring);
+            Gauge.builder("business.last_minute", ring, r -> toValue(metric, r.valueAt(currentMinute() - 1)))
+                    .description("Business events in the last complete minute")
+                    .tag("metric", metric.name())
+                    .register(meterRegistry);
+            Gauge.builder("business.last_24h", ring, r -> toValue(metric, r.sum(currentMinute())))
+                    .description("Business events in the last 24 hours")
+                    .tag("metric", metric.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Count one event in the current minute once the surrounding transaction commits
+     */
+    public void recordAfterCommit(Metric metric) {
+        recordAfterCommit(metric, 1);
+    }
+
+    /**
+     * Add an amount (revenue in currency units) to the current minute once the surrounding transaction commits
+     */
+    public void recordAfterCommit(Metric metric, BigDecimal amount) {
+        recordAfterCommit(metric, amount.movePointRight(REVENUE_SCALE).setScale(0, RoundingMode.HALF_UP).longValue());
+    }
+
+    /**
+     * Per-minute values for the last {@code minutes} complete and current minutes, oldest first
+     */
+    public double[] getSeries(Metric metric, int minutes) {
+        int length = Math.max(1, Math.min(minutes, MINUTES));
+        long now = currentMinute();
+        Ring ring = rings.get(metric);
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = toValue(metric, ring.valueAt(now - length + 1 + i));
+        }
+        return values;
+    }
+
+    /**
+     * Epoch minute of the current, still filling slot
+     */
+    public long currentMinute() {
+        return System.currentTimeMillis() / MILLIS_PER_MINUTE;
+    }
+
+    private void recordAfterCommit(Metric metric, long amount) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rings.get(metric).add(currentMinute(), amount);
+                }
+            });
+        } else {
+            rings.get(metric).add(currentMinute(), amount);
+        }
+    }
+
+    private static double toValue(Metric metric, long raw) {
+        return metric == Metric.REVENUE ? raw / Math.pow(10, REVENUE_SCALE) : raw;
+    }
+
+    /**
+     * One value per minute in two parallel primitive arrays indexed by minute modulo the ring size
+     */
+    private static final class Ring {
+        private final long[] minutes = new long[MINUTES];
+        private final long[] values = new long[MINUTES];
+
+        synchronized void add(long minute, long amount) {
+            int slot = (int) (minute % MINUTES);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                values[slot] = 0;
+            }
+            values[slot] += amount;
+        }
+
+        synchronized long valueAt(long minute) {
+            int slot = (int) (minute % MINUTES);
+            return minutes[slot] == minute ? values[slot] : 0;
+        }
+
+        synchronized long sum(long now) {
+            long total = 0;
+            for (int slot = 0; slot < MINUTES; slot++) {
+                if (now - minutes[slot] < MINUTES) {
+                    total += values[slot];
+                }
+            }
+            return total;
+        }
+    }
+}
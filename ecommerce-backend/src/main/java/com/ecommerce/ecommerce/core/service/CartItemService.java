@@ -2,7 +2,9 @@ package com.ecommerce.ecommerce.core.service;
 
 import com.ecommerce.ecommerce.api.dto.cart.AddToCartRequest;
 import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartPricingResponse;
 import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartSummaryResponse;
 import com.ecommerce.ecommerce.api.dto.cart.UpdateCartItemRequest;
 import com.ecommerce.ecommerce.api.dto.product.ProductVariantDTO;
 import com.ecommerce.ecommerce.api.mapper.DtoMapper;
@@ -14,20 +16,31 @@ import com.ecommerce.ecommerce.core.exception.BusinessException;
 import com.ecommerce.ecommerce.core.exception.ErrorCode;
 import com.ecommerce.ecommerce.core.exception.ResourceNotFoundException;
 import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import com.ecommerce.ecommerce.util.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service class for CartItem entity operations.
  * Handles shopping cart management, item operations, and cart calculations.
+ * Carts live in cart_items, or in Redis with write-behind persistence when app.cart.store=redis (see {@link HotCartStore}).
+ * Anonymous visitors get a guest cart in Redis (see {@link GuestCartStore}), merged into their own cart at login.
  */
 @Service
 @RequiredArgsConstructor
@@ -40,6 +53,11 @@ public class CartItemService {
     private final ProductVariantService productVariantService;
     private final UserService userService;
     private final AuthenticationService authenticationService;
+    private final BusinessTimeSeries businessTimeSeries;
+    private final HotCartStore hotCartStore;
+    private final GuestCartStore guestCartStore;
+    private final CartSummaryService cartSummaryService;
+    private final CartPricingService cartPricingService;
     private final DtoMapper mapper;
 
     /**
@@ -47,68 +65,70 @@ public class CartItemService {
      */
     @Transactional
     public CartItemResponse addToCart(AddToCartRequest request, ProductVariantDTO variant, Authentication authentication) {
-        User user = authenticationService.getCurrentUser(authentication);
+        Long userId = currentUserId(authentication);
 
         Product product = productService.getProductById(Long.valueOf(request.getProductId()))
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.PRODUCT_NOT_FOUND, "Product", request.getProductId()));
 
-        log.info("Adding product {} to cart for user {}", request.getProductId(), user.getId());
+        log.info("Adding product {} to cart for user {}", request.getProductId(), userId);
+        businessTimeSeries.recordAfterCommit(BusinessTimeSeries.Metric.ADD_TO_CARTS);
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem;
-        if (variant != null) {
-            ProductVariant productVariant = mapper.toProductVariantEntity(variant);
-            existingItem = cartItemRepository.findByUserAndProductAndProductVariant(user, product, productVariant);
-        } else {
-            existingItem = cartItemRepository.findByUserAndProduct(user, product);
+        if (hotCartStore.isEnabled()) {
+            CartItemResponse added = hotCartStore.add(userId, snapshot(request, product, variant), request.getQuantity());
+            recordChange(userId, request.getQuantity());
+            return added;
         }
 
-        if (existingItem.isPresent()) {
-            // Update quantity of existing item
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + request.getQuantity());
-            CartItem savedItem = cartItemRepository.save(item);
-            log.info("Updated cart item quantity: {}", savedItem.getId());
-            return mapper.toCartItemResponseDTO(savedItem);
-        } else {
-            // Create new cart item
-            CartItem cartItem = mapper.toCartItemEntity(request);
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setProductVariant(variant != null ? mapper.toProductVariantEntity(variant) : null);
-            cartItem.setAddedAt(LocalDateTime.now());
-
-            CartItem savedItem = cartItemRepository.save(cartItem);
-            log.info("Added new item to cart: {}", savedItem.getId());
-            return mapper.toCartItemResponseDTO(savedItem);
-        }
+        // One upsert creates the line or adds to it, so concurrent adds cannot create duplicates
+        long variantKey = variant != null && variant.getId() != null ? variant.getId() : 0L;
+        cartItemRepository.addQuantity(userId, product.getId(), variantKey, request.getQuantity());
+        CartItem savedItem = cartItemRepository.findLine(userId, product.getId(), variantKey)
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", request.getProductId()));
+        log.info("Cart item {} now has quantity {}", savedItem.getId(), savedItem.getQuantity());
+        recordChange(userId, request.getQuantity());
+        return mapper.toCartItemResponseDTO(savedItem);
     }
     /**
      * Update cart item
      */
     @Transactional
-    public CartItemResponse updateCartItem(Long itemId, UpdateCartItemRequest request, Authentication authentication) {
+    public CartItemResponse updateCartItem(String itemId, UpdateCartItemRequest request, Authentication authentication) {
+        if (hotCartStore.isEnabled()) {
+            Long userId = currentUserId(authentication);
+            HotCartStore.LineChange change = hotCartStore.update(userId, itemId, request.getQuantity());
+            recordChange(userId, change.quantityDelta());
+            return change.line();
+        }
         User user = authenticationService.getCurrentUser(authentication);
 
-        CartItem item = cartItemRepository.findById(itemId)
+        CartItem item = cartItemRepository.findById(parseItemId(itemId))
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", itemId));
 
         if (!item.getUser().getId().equals(user.getId())) {
             throw new BusinessException(ErrorCode.ACCESS_DENIED, "Access denied to cart item");
         }
 
+        int previousQuantity = item.getQuantity();
         item.setQuantity(request.getQuantity());
         CartItem savedItem = cartItemRepository.save(item);
+        recordChange(user.getId(), request.getQuantity() - previousQuantity);
 
         log.info("Updated cart item {} quantity to {}", itemId, request.getQuantity());
         return mapper.toCartItemResponseDTO(savedItem);
     }
 
     @Transactional
-    public void removeFromCart(Long itemId, Authentication authentication) {
+    public void removeFromCart(String itemId, Authentication authentication) {
+        if (hotCartStore.isEnabled()) {
+            Long userId = currentUserId(authentication);
+            HotCartStore.LineChange change = hotCartStore.remove(userId, itemId);
+            recordChange(userId, change.quantityDelta());
+            log.info("Removed cart item: {}", itemId);
+            return;
+        }
         User user = authenticationService.getCurrentUser(authentication);
 
-        CartItem item = cartItemRepository.findById(itemId)
+        CartItem item = cartItemRepository.findById(parseItemId(itemId))
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", itemId));
 
         if (!item.getUser().getId().equals(user.getId())) {
@@ -116,65 +136,328 @@ public class CartItemService {
         }
 
         cartItemRepository.delete(item);
+        recordChange(user.getId(), -item.getQuantity());
         log.info("Removed cart item: {}", itemId);
     }
 
     @Transactional
     public void clearCart(Authentication authentication) {
-        User user = authenticationService.getCurrentUser(authentication);
-        cartItemRepository.removeAllByUserId(user.getId());
-        log.info("Cleared cart for user: {}", user.getId());
+        Long userId = currentUserId(authentication);
+        if (hotCartStore.isEnabled()) {
+            hotCartStore.clear(userId);
+        } else {
+            cartItemRepository.removeAllByUserId(userId);
+        }
+        cartSummaryService.invalidate(userId);
+        log.info("Cleared cart for user: {}", userId);
     }
 
+    // Cart reads join no transaction so the Redis store does not hold a database connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CartResponse getCartForUser(Authentication authentication) {
+        if (hotCartStore.isEnabled()) {
+            return hotCartStore.getCart(currentUserId(authentication));
+        }
         User user = authenticationService.getCurrentUser(authentication);
         List<CartItem> cartItems = cartItemRepository.findByUserIdOrderByAddedAtDesc(user.getId());
         return mapper.toCartResponseDTO(cartItems);
     }
     /**
-     * Sync cart with list of items
+     * Sync cart with list of items.
+     * Applied as a diff against the current cart: lines no longer wanted are deleted in one batch
+     * and new or changed lines are written with one upsert.
      */
     @Transactional
     public CartResponse syncCart(List<AddToCartRequest> items, Authentication authentication) {
-        User user = authenticationService.getCurrentUser(authentication);
+        Long userId = currentUserId(authentication);
+        Map<String, CartItem> wanted = resolveLines(items);
+        cartSummaryService.invalidate(userId);
 
-        // Clear current cart
-        cartItemRepository.removeAllByUserId(user.getId());
+        if (hotCartStore.isEnabled()) {
+            hotCartStore.replace(userId, toResponses(wanted));
+            return hotCartStore.getCart(userId);
+        }
 
-        // Add new items
-        for (AddToCartRequest item : items) {
-            try {
-                ProductVariant productVariant = productVariantService.getVariantById(Long.parseLong(item.getVariantId())).orElseThrow(()-> new ResourceNotFoundException(ErrorCode.RESOURCE_NOT_FOUND));
-                addToCart(item, mapper.toProductVariantDTO(productVariant), authentication);
-            } catch (Exception e) {
-                log.warn("Failed to add item {} to cart during sync: {}", item.getProductId(), e.getMessage());
+        List<Long> removed = new ArrayList<>();
+        for (CartItem current : cartItemRepository.findByUserIdOrderByAddedAtDesc(userId)) {
+            String lineId = HotCartStore.lineId(current.getProduct().getId(),
+                    current.getProductVariant() != null ? current.getProductVariant().getId() : null);
+            CartItem line = wanted.get(lineId);
+            if (line == null) {
+                removed.add(current.getId());
+            } else if (line.getQuantity().equals(current.getQuantity())) {
+                wanted.remove(lineId);
             }
         }
+        if (!removed.isEmpty()) {
+            cartItemRepository.deleteAllByIdInBatch(removed);
+        }
+        if (!wanted.isEmpty()) {
+            cartItemRepository.upsertLines(userId, wanted.values());
+        }
+        log.info("Synced cart for user {}: {} lines removed, {} written", userId, removed.size(), wanted.size());
 
-        // Return updated cart
-        return getCartForUser(authentication);
+        return mapper.toCartResponseDTO(cartItemRepository.findWithProductsByUserId(userId));
+    }
+
+    /**
+     * Item count, subtotal and version of the user's cart, recomputed once after every mutation
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartSummaryResponse getCartSummary(Authentication authentication) {
+        return cartSummaryService.getSummary(currentUserId(authentication));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Integer getCartItemCount(Authentication authentication) {
-        User user = authenticationService.getCurrentUser(authentication);
-        Integer total = cartItemRepository.getTotalQuantityByUser(user.getId());
-        return total != null ? total : 0;
+        return getCartSummary(authentication).getItemCount();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal getCartTotal(Authentication authentication) {
-        User user = authenticationService.getCurrentUser(authentication);
-        BigDecimal total = cartItemRepository.getTotalValueByUser(user.getId());
-        return total != null ? total : BigDecimal.ZERO;
+        return getCartSummary(authentication).getSubtotal();
     }
 
-    public String validateCart(Authentication authentication) {
-        CartResponse cart = getCartForUser(authentication);
+    /**
+     * Guest cart of an anonymous visitor; empty without a guest id.
+     * Guest operations only touch Redis, so they join no transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartResponse getGuestCart(String guestId) {
+        return guestCartStore.getCart(guestId);
+    }
 
-        if (cart.getItems().isEmpty()) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartSummaryResponse getGuestCartSummary(String guestId) {
+        return guestCartStore.getSummary(guestId);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartItemResponse addToGuestCart(String guestId, AddToCartRequest request, ProductVariantDTO variant) {
+        Product product = productService.getProductById(Long.valueOf(request.getProductId()))
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.PRODUCT_NOT_FOUND, "Product", request.getProductId()));
+        businessTimeSeries.recordAfterCommit(BusinessTimeSeries.Metric.ADD_TO_CARTS);
+        return guestCartStore.add(guestId, snapshot(request, product, variant), request.getQuantity());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartItemResponse updateGuestCartItem(String guestId, String itemId, UpdateCartItemRequest request) {
+        if (guestId == null) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", itemId);
+        }
+        return guestCartStore.update(guestId, itemId, request.getQuantity());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void removeFromGuestCart(String guestId, String itemId) {
+        if (guestId == null) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", itemId);
+        }
+        guestCartStore.remove(guestId, itemId);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void clearGuestCart(String guestId) {
+        if (guestId != null) {
+            guestCartStore.clear(guestId);
+        }
+    }
+
+    public CartResponse syncGuestCart(String guestId, List<AddToCartRequest> items) {
+        guestCartStore.replace(guestId, toResponses(resolveLines(items)));
+        return guestCartStore.getCart(guestId);
+    }
+
+    /**
+     * Merge a guest cart into the user's cart at login: the guest lines are taken from Redis atomically,
+     * resolved with one product and one variant query and added with one bulk upsert (or one MULTI in
+     * the hot store), summing quantities with lines the user already has. The guest lines are put back
+     * if the merge rolls back.
+     */
+    @Transactional
+    public void mergeGuestCart(String guestId, Long userId) {
+        List<CartItemResponse> guestLines = guestCartStore.take(guestId);
+        if (guestLines.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    guestCartStore.restore(guestId, guestLines);
+                }
+            }
+        });
+
+        Map<String, CartItem> lines = resolveLines(guestLines.stream()
+                .map(line -> AddToCartRequest.builder()
+                        .productId(line.getProductId())
+                        .variantId(line.getVariantId())
+                        .quantity(line.getQuantity())
+                        .build())
+                .toList());
+        if (hotCartStore.isEnabled()) {
+            hotCartStore.merge(userId, toResponses(lines));
+        } else if (!lines.isEmpty()) {
+            cartItemRepository.mergeLines(userId, lines.values());
+        }
+        cartSummaryService.invalidate(userId);
+        log.info("Merged {} guest cart lines into cart of user {}", lines.size(), userId);
+    }
+
+    /**
+     * Reconcile at login: load the user's stored cart into the hot store
+     */
+    public void reconcileOnLogin(Long userId) {
+        if (hotCartStore.isEnabled()) {
+            hotCartStore.warm(userId);
+        }
+    }
+
+    /**
+     * Reconcile at checkout: persist pending hot cart changes before the order is placed.
+     * Fails the checkout if they cannot be written, rather than placing the order from a stale cart.
+     */
+    public void reconcileForCheckout(Long userId) {
+        if (hotCartStore.isEnabled()) {
+            try {
+                hotCartStore.persist(userId);
+            } catch (RuntimeException e) {
+                log.warn("Could not persist cart of user {} before checkout: {}", userId, e.getMessage());
+                throw new BusinessException(ErrorCode.CART_NOT_SAVED, "Could not save cart before checkout", e);
+            }
+        }
+    }
+
+    /**
+     * The user's cart repriced at current catalog prices, with line-level adjustments
+     */
+    public CartPricingResponse priceCart(Authentication authentication) {
+        return cartPricingService.priceUserCart(currentUserId(authentication));
+    }
+
+    public CartPricingResponse priceGuestCart(String guestId) {
+        return cartPricingService.priceGuestCart(guestId);
+    }
+
+    /**
+     * Reprice and validate the user's cart before checkout
+     */
+    public CartPricingResponse validateCart(Authentication authentication) {
+        CartPricingResponse pricing = priceCart(authentication);
+
+        if (pricing.getLines().isEmpty()) {
             throw new BusinessException(ErrorCode.VALIDATION_FAILED, "Cart is empty");
         }
+        return pricing;
+    }
+
+    /**
+     * User id from the authenticated principal, falling back to a lookup for other principal types
+     */
+    private Long currentUserId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getId() != null) {
+            return Long.valueOf(principal.getId());
+        }
+        return Long.valueOf(authenticationService.getCurrentUserId(authentication));
+    }
+
+    private void recordChange(Long userId, int quantityDelta) {
+        if (quantityDelta != 0) {
+            cartSummaryService.invalidate(userId);
+        }
+    }
+
+    /**
+     * Snapshot of a new line as the database mode would render it
+     */
+    private CartItemResponse snapshot(AddToCartRequest request, Product product, ProductVariantDTO variant) {
+        CartItem line = mapper.toCartItemEntity(request);
+        line.setProduct(product);
+        line.setProductVariant(variant != null ? mapper.toProductVariantEntity(variant) : null);
+        CartItemResponse response = mapper.toCartItemResponseDTO(line);
+        response.setId(HotCartStore.lineId(product.getId(), variant != null ? variant.getId() : null));
+        return response;
+    }
+
+    /**
+     * Resolved lines as Redis line snapshots, identified by their line ids
+     */
+    private List<CartItemResponse> toResponses(Map<String, CartItem> lines) {
+        List<CartItemResponse> responses = new ArrayList<>();
+        lines.forEach((lineId, line) -> {
+            CartItemResponse response = mapper.toCartItemResponseDTO(line);
+            response.setId(lineId);
+            responses.add(response);
+        });
+        return responses;
+    }
 
-        // Additional validation logic can be added here
-        return "Cart is valid";
+    private static Long parseItemId(String itemId) {
+        try {
+            return Long.valueOf(itemId);
+        } catch (NumberFormatException e) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", itemId);
+        }
     }
+
+    /**
+     * Resolve sync items with one product query and one variant query, merging repeated lines.
+     * Items with an unknown or inactive product, an unknown variant or a variant of another product are skipped.
+     */
+    private Map<String, CartItem> resolveLines(List<AddToCartRequest> items) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (AddToCartRequest item : items) {
+            Long productId = parseId(item.getProductId());
+            Long variantId = parseId(item.getVariantId());
+            if (productId != null) {
+                productIds.add(productId);
+            }
+            if (variantId != null) {
+                variantIds.add(variantId);
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productService.getProductsByIds(productIds).forEach(product -> products.put(product.getId(), product));
+        Map<Long, ProductVariant> variants = new HashMap<>();
+        if (!variantIds.isEmpty()) {
+            productVariantService.getVariantsByIds(variantIds).forEach(variant -> variants.put(variant.getId(), variant));
+        }
+
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        for (AddToCartRequest item : items) {
+            Product product = products.get(parseId(item.getProductId()));
+            Long variantId = parseId(item.getVariantId());
+            ProductVariant variant = variantId != null ? variants.get(variantId) : null;
+            boolean validVariant = variantId == null
+                    || (variant != null && variant.getProduct().getId().equals(product != null ? product.getId() : null));
+            if (product == null || !validVariant || item.getQuantity() == null || item.getQuantity() < 1) {
+                log.warn("Skipping item {} during cart sync: unknown product or variant, or invalid quantity", item.getProductId());
+                continue;
+            }
+            lines.merge(HotCartStore.lineId(product.getId(), variantId),
+                    CartItem.builder()
+                            .product(product)
+                            .productVariant(variant)
+                            .quantity(item.getQuantity())
+                            .addedAt(LocalDateTime.now())
+                            .build(),
+                    (existing, added) -> {
+                        existing.setQuantity(existing.getQuantity() + added.getQuantity());
+                        return existing;
+                    });
+        }
+        return lines;
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return id != null ? Long.valueOf(id) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
 }
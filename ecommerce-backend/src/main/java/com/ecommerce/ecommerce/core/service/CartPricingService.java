@@ -0,0 +1,189 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartPricingResponse;
+import com.ecommerce.ecommerce.api.dto.cart.PricedCartLine;
+import com.ecommerce.ecommerce.api.dto.cart.PricedCartLine.Adjustment;
+import com.ecommerce.ecommerce.api.dto.order.OrderItemRequest;
+import com.ecommerce.ecommerce.core.domain.projection.CartLine;
+import com.ecommerce.ecommerce.core.domain.projection.CatalogLine;
+import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for repricing and validating whole carts.
+ * A cart is checked against the catalog with a single query: stored carts join their products and
+ * variants directly, Redis carts and checkout requests look up all their products and variants at once.
+ * Each line gets the current price, the quantity that can be bought now and the adjustments that apply
+ * (price change, reduced quantity, out of stock, inactive product or variant). Both the cart page and
+ * checkout use it, so they always agree on prices and availability.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class CartPricingService {
+
+    private static final String CURRENCY = "JPY";
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final HotCartStore hotCartStore;
+    private final GuestCartStore guestCartStore;
+
+    /**
+     * A line to price: its id, product, optional variant, quantity and the price it was added at, if known
+     */
+    public record Line(String id, Long productId, Long variantId, int quantity, BigDecimal cartPrice) {
+
+        public static Line of(CartItemResponse item) {
+            return new Line(item.getId(), Long.valueOf(item.getProductId()),
+                    item.getVariantId() != null ? Long.valueOf(item.getVariantId()) : null,
+                    item.getQuantity(), item.getPrice());
+        }
+
+        public static Line of(String id, OrderItemRequest item) {
+            return new Line(id, item.getProductId(), item.getProductVariantId(), item.getQuantity(), null);
+        }
+    }
+
+    /**
+     * Price the user's cart
+     */
+    public CartPricingResponse priceUserCart(Long userId) {
+        if (hotCartStore.isEnabled()) {
+            // The lines as added, so a price change since then is reported
+            return priceLines(hotCartStore.getLines(userId).stream().map(Line::of).toList());
+        }
+        List<Line> lines = new ArrayList<>();
+        List<CatalogLine> catalog = new ArrayList<>();
+        for (CartLine row : cartItemRepository.findPricedLinesByUserId(userId)) {
+            // Stored lines carry no price of their own, so no price change can be reported for them
+            lines.add(new Line(row.getCartItemId().toString(), row.getProductId(), row.getVariantId(),
+                    row.getQuantity(), null));
+            catalog.add(row);
+        }
+        return price(lines, catalog);
+    }
+
+    /**
+     * Price an anonymous visitor's cart
+     */
+    public CartPricingResponse priceGuestCart(String guestId) {
+        return priceLines(guestCartStore.getCart(guestId).getItems().stream().map(Line::of).toList());
+    }
+
+    /**
+     * Price arbitrary lines with one catalog query
+     */
+    public CartPricingResponse priceLines(List<Line> lines) {
+        if (lines.isEmpty()) {
+            return price(lines, List.of());
+        }
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (Line line : lines) {
+            productIds.add(line.productId());
+            if (line.variantId() != null) {
+                variantIds.add(line.variantId());
+            }
+        }
+        return price(lines, productRepository.findCatalogLines(productIds, variantIds));
+    }
+
+    private CartPricingResponse price(List<Line> lines, List<CatalogLine> catalog) {
+        Map<Long, CatalogLine> products = new HashMap<>();
+        Map<Long, CatalogLine> variants = new HashMap<>();
+        for (CatalogLine row : catalog) {
+            products.putIfAbsent(row.getProductId(), row);
+            if (row.getVariantId() != null) {
+                variants.put(row.getVariantId(), row);
+            }
+        }
+
+        List<PricedCartLine> priced = new ArrayList<>();
+        int itemCount = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        boolean valid = true;
+        boolean adjusted = false;
+        for (Line line : lines) {
+            PricedCartLine pricedLine = priceLine(line, products.get(line.productId()),
+                    line.variantId() != null ? variants.get(line.variantId()) : null);
+            priced.add(pricedLine);
+            itemCount += pricedLine.getQuantity();
+            subtotal = subtotal.add(pricedLine.getLineTotal());
+            valid &= pricedLine.isPurchasable();
+            adjusted |= !pricedLine.getAdjustments().isEmpty();
+        }
+        return CartPricingResponse.builder()
+                .lines(priced)
+                .itemCount(itemCount)
+                .subtotal(subtotal)
+                .currency(CURRENCY)
+                .valid(valid)
+                .adjusted(adjusted)
+                .build();
+    }
+
+    private static PricedCartLine priceLine(Line line, CatalogLine product, CatalogLine variant) {
+        List<Adjustment> adjustments = new ArrayList<>();
+        PricedCartLine.PricedCartLineBuilder builder = PricedCartLine.builder()
+                .id(line.id())
+                .productId(line.productId().toString())
+                .variantId(line.variantId() != null ? line.variantId().toString() : null)
+                .requestedQuantity(line.quantity())
+                .cartPrice(line.cartPrice())
+                .adjustments(adjustments);
+
+        if (product == null || !Boolean.TRUE.equals(product.getProductActive())) {
+            adjustments.add(Adjustment.PRODUCT_UNAVAILABLE);
+            return builder.quantity(0).availableQuantity(0).lineTotal(BigDecimal.ZERO).build();
+        }
+        builder.productName(product.getProductName())
+                .productSku(product.getProductSku())
+                .productImage(product.getProductImage());
+        if (line.variantId() != null && (variant == null || !Boolean.TRUE.equals(variant.getVariantActive()))) {
+            adjustments.add(Adjustment.VARIANT_UNAVAILABLE);
+            return builder.quantity(0).availableQuantity(0).lineTotal(BigDecimal.ZERO).build();
+        }
+
+        BigDecimal unitPrice = product.getProductPrice();
+        int available = product.getProductStock() != null ? product.getProductStock() : 0;
+        if (variant != null) {
+            builder.variantName(variant.getVariantType() + ": " + variant.getVariantValue());
+            if (variant.getVariantPrice() != null) {
+                unitPrice = variant.getVariantPrice();
+            }
+            available = variant.getVariantStock() != null ? variant.getVariantStock() : 0;
+        }
+        if (line.cartPrice() != null && line.cartPrice().compareTo(unitPrice) != 0) {
+            adjustments.add(Adjustment.PRICE_CHANGED);
+        }
+
+        int quantity = line.quantity();
+        if (available <= 0) {
+            adjustments.add(Adjustment.OUT_OF_STOCK);
+            quantity = 0;
+        } else if (quantity > available) {
+            adjustments.add(Adjustment.QUANTITY_REDUCED);
+            quantity = available;
+        }
+        return builder.unitPrice(unitPrice)
+                .quantity(quantity)
+                .availableQuantity(Math.max(available, 0))
+                .lineTotal(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartSummaryResponse;
+import com.ecommerce.ecommerce.core.domain.projection.CartTotals;
+import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Service class for per-user cart summaries (item count, subtotal, last change) behind the cart badge.
+ * Summaries are cached in a Redis hash per user, so reads only run the aggregate query once per change.
+ * Every mutation drops the cached totals and bumps a version, which is the summary's ETag, once its
+ * transaction commits. Totals computed before that point may already include the change (hot carts
+ * change Redis before the commit), so they are never adjusted in place: they are dropped, and totals
+ * computed under the old version are refused when stored. The TTL bounds drift from catalog price changes.
+ */
+@Service
+@Slf4j
+public class CartSummaryService {
+
+    private static final String KEY_PREFIX = "cart:summary:";
+    private static final String CURRENCY = "JPY";
+    private static final int AMOUNT_SCALE = 2;
+
+    /**
+     * Bump the version and drop the cached totals
+     * ARGV: seed version, ttl millis
+     */
+    private static final RedisScript<Long> INVALIDATE = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'version') == 0 then redis.call('HSET', KEYS[1], 'version', ARGV[1]) end " +
+            "redis.call('HDEL', KEYS[1], 'items', 'cents', 'modified') " +
+            "if redis.call('PTTL', KEYS[1]) == -1 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return redis.call('HINCRBY', KEYS[1], 'version', 1)", Long.class);
+
+    /**
+     * Cache computed totals unless the version moved since they were read; returns the version, or -1 if not cached.
+     * ARGV: version read before computing ("" if none), items, cents, modified epoch millis, seed version, ttl millis
+     */
+    private static final RedisScript<Long> STORE = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], 'version') or '' " +
+            "if current ~= ARGV[1] then return -1 end " +
+            "if current == '' then redis.call('HSET', KEYS[1], 'version', ARGV[5]) end " +
+            "redis.call('HSET', KEYS[1], 'items', ARGV[2], 'cents', ARGV[3], 'modified', ARGV[4]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[6]) " +
+            "return tonumber(redis.call('HGET', KEYS[1], 'version'))", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartItemRepository cartItemRepository;
+    private final HotCartStore hotCartStore;
+    private final Duration ttl;
+
+    public CartSummaryService(StringRedisTemplate redisTemplate,
+                              CartItemRepository cartItemRepository,
+                              HotCartStore hotCartStore,
+                              @Value("${app.cart.summary.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cartItemRepository = cartItemRepository;
+        this.hotCartStore = hotCartStore;
+        this.ttl = ttl;
+    }
+
+    /**
+     * The user's cart summary, from cache when possible
+     */
+    public CartSummaryResponse getSummary(Long userId) {
+        String key = key(userId);
+        try {
+            List<Object> cached = redisTemplate.opsForHash().multiGet(key, List.of("version", "items", "cents", "modified"));
+            String version = (String) cached.get(0);
+            if (version != null && cached.get(1) != null) {
+                return summary(Integer.parseInt((String) cached.get(1)), Long.parseLong((String) cached.get(2)),
+                        Long.parseLong((String) cached.get(3)), Long.valueOf(version));
+            }
+
+            CartSummaryResponse computed = compute(userId);
+            Long stored = redisTemplate.execute(STORE, List.of(key),
+                    version != null ? version : "",
+                    computed.getItemCount().toString(),
+                    Long.toString(toCents(computed.getSubtotal())),
+                    Long.toString(toEpochMilli(computed.getLastModified())),
+                    seedVersion(),
+                    Long.toString(ttl.toMillis()));
+            // Not cached when a mutation raced the computation; serve it without a version so no stale ETag is handed out
+            computed.setVersion(stored != null && stored >= 0 ? stored : null);
+            return computed;
+        } catch (DataAccessException e) {
+            log.warn("Cart summary cache unavailable for user {}: {}", userId, e.getMessage());
+            return compute(userId);
+        }
+    }
+
+    /**
+     * Drop the cached summary once the surrounding transaction commits; called for every cart change
+     */
+    public void invalidate(Long userId) {
+        afterCommit(() -> redisTemplate.execute(INVALIDATE, List.of(key(userId)),
+                seedVersion(), Long.toString(ttl.toMillis())));
+    }
+
+    /**
+     * ETag of a summary, or null when it carries no version
+     */
+    public static String eTag(CartSummaryResponse summary) {
+        return summary.getVersion() != null ? "\"" + summary.getVersion() + "\"" : null;
+    }
+
+    private CartSummaryResponse compute(Long userId) {
+        if (hotCartStore.isEnabled()) {
+            CartResponse cart = hotCartStore.getCart(userId);
+            return CartSummaryResponse.builder()
+                    .itemCount(cart.getTotalItems())
+                    .subtotal(cart.getTotalPrice())
+                    .currency(CURRENCY)
+                    .lastModified(LocalDateTime.now())
+                    .build();
+        }
+        CartTotals totals = cartItemRepository.getTotalsByUser(userId);
+        return CartSummaryResponse.builder()
+                .itemCount(totals.getItemCount().intValue())
+                .subtotal(totals.getSubtotal())
+                .currency(CURRENCY)
+                .lastModified(totals.getLastModified() != null ? totals.getLastModified() : LocalDateTime.now())
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (DataAccessException e) {
+                log.warn("Could not update cart summary: {}", e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private static CartSummaryResponse summary(int items, long cents, long modified, Long version) {
+        return CartSummaryResponse.builder()
+                .itemCount(items)
+                .subtotal(BigDecimal.valueOf(cents, AMOUNT_SCALE))
+                .currency(CURRENCY)
+                .lastModified(LocalDateTime.ofInstant(Instant.ofEpochMilli(modified), ZoneId.systemDefault()))
+                .version(version)
+                .build();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(AMOUNT_SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String seedVersion() {
+        return Long.toString(System.currentTimeMillis());
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,278 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.dashboard.CohortReportDTO;
+import com.ecommerce.ecommerce.core.domain.entity.AnalyticsReport;
+import com.ecommerce.ecommerce.core.domain.projection.CohortOrderRow;
+import com.ecommerce.ecommerce.core.repository.AnalyticsReportRepository;
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import com.ecommerce.ecommerce.core.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Service class for cohort and retention analytics.
+ * Customers are grouped by signup month; for each cohort the report gives the share of customers
+ * ordering k months after signup, the repeat-purchase rate and cumulative revenue per customer.
+ * The report is computed in one forward-only pass over counted orders (sorted by customer) into
+ * primitive arrays, so memory depends on the number of months, not the number of orders, and the
+ * result is stored in analytics_reports and served from there. A stale report is still served while
+ * a rebuild runs in the background; concurrent requests share one rebuild.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class CohortReportService {
+
+    public static final String REPORT_NAME = "cohort-retention";
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final AnalyticsReportRepository analyticsReportRepository;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final TransactionTemplate writer;
+    private final Duration maxAge;
+
+    private final AtomicReference<CompletableFuture<CohortReportDTO>> inFlight = new AtomicReference<>();
+
+    public CohortReportService(OrderRepository orderRepository,
+                               UserRepository userRepository,
+                               AnalyticsReportRepository analyticsReportRepository,
+                               ObjectMapper objectMapper,
+                               @Qualifier("dashboardExecutor") ExecutorService executor,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.analytics.cohort-report.max-age:24h}") Duration maxAge) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.analyticsReportRepository = analyticsReportRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.writer = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Latest stored report. A report older than the configured max age is returned as is while a
+     * rebuild starts in the background; only when none can be read does the caller wait for one.
+     */
+    public CohortReportDTO getReport() {
+        AnalyticsReport stored = analyticsReportRepository.findById(REPORT_NAME).orElse(null);
+        if (stored == null) {
+            return rebuildAsync().join();
+        }
+        CohortReportDTO report;
+        try {
+            report = objectMapper.readValue(stored.getPayload(), CohortReportDTO.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Stored cohort report is unreadable, rebuilding: {}", e.getMessage());
+            return rebuildAsync().join();
+        }
+        if (stored.getGeneratedAt().isBefore(LocalDateTime.now().minus(maxAge))) {
+            rebuildAsync();
+        }
+        return report;
+    }
+
+    /**
+     * Recompute the report and store it
+     */
+    @Scheduled(cron = "${app.analytics.cohort-report.rebuild-cron:0 15 4 * * *}")
+    public CohortReportDTO rebuild() {
+        return rebuildAsync().join();
+    }
+
+    /**
+     * Start a rebuild unless one is already running, returning the shared in-flight future
+     */
+    private CompletableFuture<CohortReportDTO> rebuildAsync() {
+        CompletableFuture<CohortReportDTO> mine = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<CohortReportDTO> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            if (inFlight.compareAndSet(null, mine)) {
+                break;
+            }
+        }
+
+        executor.execute(() -> {
+            try {
+                mine.complete(writer.execute(status -> build()));
+            } catch (RuntimeException e) {
+                log.warn("Cohort report rebuild failed: {}", e.getMessage());
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.compareAndSet(mine, null);
+            }
+        });
+        return mine;
+    }
+
+    private CohortReportDTO build() {
+        long start = System.nanoTime();
+        CohortReportDTO report = compute();
+        report.setGeneratedAt(LocalDateTime.now());
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        try {
+            analyticsReportRepository.save(AnalyticsReport.builder()
+                    .name(REPORT_NAME)
+                    .payload(objectMapper.writeValueAsString(report))
+                    .generatedAt(report.getGeneratedAt())
+                    .durationMs(report.getDurationMs())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cohort report", e);
+        }
+        log.info("Cohort report rebuilt: {} cohorts, {} customers in {} ms",
+                report.getCohorts().size(), report.getCustomers(), report.getDurationMs());
+        return report;
+    }
+
+    private CohortReportDTO compute() {
+        int currentMonth = monthIndex(LocalDate.now());
+        List<Object[]> cohortSizes = userRepository.countCustomersBySignupMonth();
+        if (cohortSizes.isEmpty()) {
+            return CohortReportDTO.builder().cohorts(List.of()).build();
+        }
+
+        // Cohort c covers signup month firstMonth + c and can be observed for (months - c) months
+        int firstMonth = ((Number) cohortSizes.get(0)[0]).intValue();
+        int months = Math.max(1, currentMonth - firstMonth + 1);
+        long[] customers = new long[months];
+        for (Object[] row : cohortSizes) {
+            int cohort = ((Number) row[0]).intValue() - firstMonth;
+            if (cohort >= 0 && cohort < months) {
+                customers[cohort] = ((Number) row[1]).longValue();
+            }
+        }
+
+        long[][] active = new long[months][];
+        long[][] revenueCents = new long[months][];
+        for (int cohort = 0; cohort < months; cohort++) {
+            active[cohort] = new long[months - cohort];
+            revenueCents[cohort] = new long[months - cohort];
+        }
+        long[] purchasers = new long[months];
+        long[] repeatPurchasers = new long[months];
+
+        // Per-customer state, reused across customers: seen[k] == customerStamp marks month k as counted
+        int[] seen = new int[months];
+        int customerStamp = 0;
+        long currentUser = -1;
+        int currentCohort = -1;
+        int orderCount = 0;
+
+        try (Stream<CohortOrderRow> rows = orderRepository.streamOrdersForCohorts()) {
+            Iterator<CohortOrderRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CohortOrderRow row = iterator.next();
+                if (row.getUserId() != currentUser) {
+                    countCustomer(currentCohort, orderCount, purchasers, repeatPurchasers);
+                    currentUser = row.getUserId();
+                    currentCohort = row.getSignupMonth() - firstMonth;
+                    orderCount = 0;
+                    customerStamp++;
+                }
+
+                int offset = row.getOrderMonth() - row.getSignupMonth();
+                if (currentCohort < 0 || currentCohort >= months || offset < 0 || offset >= months - currentCohort) {
+                    continue;
+                }
+                orderCount++;
+                revenueCents[currentCohort][offset] += row.getAmountCents();
+                if (seen[offset] != customerStamp) {
+                    seen[offset] = customerStamp;
+                    active[currentCohort][offset]++;
+                }
+            }
+        }
+        countCustomer(currentCohort, orderCount, purchasers, repeatPurchasers);
+
+        return toReport(firstMonth, customers, purchasers, repeatPurchasers, active, revenueCents);
+    }
+
+    private static void countCustomer(int cohort, int orderCount, long[] purchasers, long[] repeatPurchasers) {
+        if (cohort < 0 || cohort >= purchasers.length || orderCount == 0) {
+            return;
+        }
+        purchasers[cohort]++;
+        if (orderCount > 1) {
+            repeatPurchasers[cohort]++;
+        }
+    }
+
+    private static CohortReportDTO toReport(int firstMonth, long[] customers, long[] purchasers, long[] repeatPurchasers,
+                                            long[][] active, long[][] revenueCents) {
+        List<CohortReportDTO.CohortDTO> cohorts = new ArrayList<>(customers.length);
+        long totalCustomers = 0;
+        long totalRevenueCents = 0;
+
+        for (int cohort = 0; cohort < customers.length; cohort++) {
+            long size = customers[cohort];
+            double[] activeRates = new double[active[cohort].length];
+            double[] cumulativeValue = new double[active[cohort].length];
+            long cumulativeCents = 0;
+            for (int offset = 0; offset < activeRates.length; offset++) {
+                cumulativeCents += revenueCents[cohort][offset];
+                activeRates[offset] = ratio(active[cohort][offset], size, 4);
+                cumulativeValue[offset] = ratio(cumulativeCents, size * 100, 2);
+            }
+            totalCustomers += size;
+            totalRevenueCents += cumulativeCents;
+
+            if (size == 0 && cumulativeCents == 0) {
+                continue;
+            }
+            cohorts.add(CohortReportDTO.CohortDTO.builder()
+                    .signupMonth(YearMonth.of((firstMonth + cohort) / 12, (firstMonth + cohort) % 12 + 1).toString())
+                    .customers(size)
+                    .purchasers(purchasers[cohort])
+                    .repeatPurchaseRate(ratio(repeatPurchasers[cohort], size, 4))
+                    .activeRates(activeRates)
+                    .cumulativeValue(cumulativeValue)
+                    .lifetimeValue(ratio(cumulativeCents, size * 100, 2))
+                    .build());
+        }
+
+        return CohortReportDTO.builder()
+                .customers(totalCustomers)
+                .lifetimeValue(ratio(totalRevenueCents, totalCustomers * 100, 2))
+                .cohorts(cohorts)
+                .build();
+    }
+
+    private static double ratio(long numerator, long denominator, int decimals) {
+        if (denominator == 0) {
+            return 0;
+        }
+        double scale = Math.pow(10, decimals);
+        return Math.round(numerator * scale / denominator) / scale;
+    }
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.projection.OrderStatusBreakdown;
+import com.ecommerce.ecommerce.core.domain.projection.SalesTotals;
+import com.ecommerce.ecommerce.core.repository.DailySalesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service class for the daily_sales rollup.
+ * Order changes are applied as deltas by the outbox, outside the checkout transaction, so concurrent
+ * checkouts do not queue on the same day/status row; dashboard figures read a few rollup rows instead of
+ * scanning orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class DailySalesService {
+
+    private final DailySalesRepository dailySalesRepository;
+
+    @Value("${app.sales-rollup.reconcile-days:2}")
+    private int reconcileDays;
+
+    /**
+     * Move an order's contribution from its previous status bucket to the new one; a null previous
+     * status adds a newly created order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(LocalDate salesDate, Order.OrderStatus oldStatus, Order.OrderStatus newStatus,
+                                 BigDecimal totalAmount, long totalItems) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        if (oldStatus != null) {
+            apply(salesDate, oldStatus, -1, totalAmount, totalItems);
+        }
+        apply(salesDate, newStatus, 1, totalAmount, totalItems);
+    }
+
+    /**
+     * Sales totals for days in [fromDate, toDate)
+     */
+    public SalesTotals getTotals(LocalDate fromDate, LocalDate toDate) {
+        return dailySalesRepository.getTotals(fromDate, toDate);
+    }
+
+    /**
+     * All-time sales totals
+     */
+    public SalesTotals getAllTimeTotals() {
+        return dailySalesRepository.getAllTimeTotals();
+    }
+
+    /**
+     * Order count per status for days in [fromDate, toDate)
+     */
+    public OrderStatusBreakdown getStatusBreakdown(LocalDate fromDate, LocalDate toDate) {
+        return OrderStatusBreakdown.fromRows(dailySalesRepository.getStatusCounts(fromDate, toDate));
+    }
+
+    /**
+     * Monthly order count and revenue since fromDate
+     */
+    public List<Object[]> getMonthlySales(LocalDate fromDate) {
+        return dailySalesRepository.getMonthlySales(fromDate);
+    }
+
+    /**
+     * Backfill: recompute rollup rows for days in [fromDate, toDate) from orders
+     */
+    @Transactional
+    public int rebuild(LocalDate fromDate, LocalDate toDate) {
+        dailySalesRepository.deleteRange(fromDate, toDate);
+        int rows = dailySalesRepository.rebuildRange(fromDate, toDate);
+        log.info("Rebuilt daily sales rollup for {} to {}: {} rows", fromDate, toDate, rows);
+        return rows;
+    }
+
+    /**
+     * Nightly reconciliation of the most recent days against orders
+     */
+    @Scheduled(cron = "${app.sales-rollup.reconcile-cron:0 15 3 * * *}")
+    @Transactional
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays), today);
+    }
+
+    private void apply(LocalDate salesDate, Order.OrderStatus status, int sign, BigDecimal totalAmount, long totalItems) {
+        dailySalesRepository.applyDelta(
+                salesDate,
+                status.name(),
+                sign,
+                totalAmount.multiply(BigDecimal.valueOf(sign)),
+                sign * totalItems);
+    }
+}
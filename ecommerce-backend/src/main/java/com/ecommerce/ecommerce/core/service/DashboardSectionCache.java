@@ -0,0 +1,190 @@
+package com.ecommerce.ecommerce.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Refresh-ahead cache for dashboard sections.
+ * Each section has its own staleness bound (app.dashboard.cache.ttl.&lt;section&gt;, default
+ * app.dashboard.cache.default-ttl). Values past the refresh-ahead point are still served while a
+ * background reload runs; only a missing or expired value makes callers wait. At most one load per
+ * section runs at a time and every concurrent caller shares its result.
+ */
+@Component
+@Slf4j
+public class DashboardSectionCache {
+
+    private final Map<String, Entry<?>> entries = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnly;
+    private final Environment environment;
+    private final Duration defaultTtl;
+    private final double refreshAhead;
+    private final Duration idleAfter;
+
+    public DashboardSectionCache(@Qualifier("dashboardExecutor") ExecutorService executor,
+                                 PlatformTransactionManager transactionManager,
+                                 Environment environment,
+                                 @Value("${app.dashboard.cache.default-ttl:30s}") Duration defaultTtl,
+                                 @Value("${app.dashboard.cache.refresh-ahead:0.8}") double refreshAhead,
+                                 @Value("${app.dashboard.cache.idle-after:10m}") Duration idleAfter) {
+        this.executor = executor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.environment = environment;
+        this.defaultTtl = defaultTtl;
+        this.refreshAhead = refreshAhead;
+        this.idleAfter = idleAfter;
+    }
+
+    /**
+     * Cached value of a section, loading it if missing or expired
+     */
+    public <T> Cached<T> get(String section, Supplier<T> loader) {
+        try {
+            return getAsync(section, loader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #get}, but returns at once; the future is already complete on a cache hit
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Cached<T>> getAsync(String section, Supplier<T> loader) {
+        Entry<T> entry = (Entry<T>) entries.computeIfAbsent(section, name -> new Entry<>(name, loader, ttl(name)));
+        long now = System.nanoTime();
+        entry.lastReadNanos = now;
+
+        Snapshot<T> snapshot = entry.snapshot;
+        if (snapshot != null) {
+            long age = now - snapshot.loadedAtNanos();
+            if (age <= entry.ttl.toNanos()) {
+                if (age >= refreshAheadNanos(entry)) {
+                    load(entry);
+                }
+                return CompletableFuture.completedFuture(snapshot.toCached(now));
+            }
+        }
+        return load(entry).thenApply(loaded -> loaded.toCached(System.nanoTime()));
+    }
+
+    /**
+     * Drop every cached section, e.g. after the data behind them was rebuilt
+     */
+    public void invalidateAll() {
+        entries.values().forEach(entry -> entry.snapshot = null);
+    }
+
+    /**
+     * Reload sections that are due before a reader finds them expired.
+     * Sections nobody has read recently are left to expire.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.cache.refresh-check-ms:1000}")
+    public void refreshDue() {
+        long now = System.nanoTime();
+        for (Entry<?> entry : entries.values()) {
+            Snapshot<?> snapshot = entry.snapshot;
+            boolean due = snapshot != null && now - snapshot.loadedAtNanos() >= refreshAheadNanos(entry);
+            if (due && now - entry.lastReadNanos < idleAfter.toNanos()) {
+                load(entry);
+            }
+        }
+    }
+
+    /**
+     * Start a load unless one is already running, returning the shared in-flight future
+     */
+    private <T> CompletableFuture<Snapshot<T>> load(Entry<T> entry) {
+        CompletableFuture<Snapshot<T>> mine = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<Snapshot<T>> running = entry.inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            if (entry.inFlight.compareAndSet(null, mine)) {
+                break;
+            }
+        }
+
+        executor.execute(() -> {
+            long started = System.nanoTime();
+            try {
+                T value = readOnly.execute(status -> entry.loader.get());
+                Snapshot<T> snapshot = new Snapshot<>(value, System.nanoTime());
+                entry.snapshot = snapshot;
+                mine.complete(snapshot);
+                log.debug("Dashboard section {} loaded in {} ms", entry.name,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (RuntimeException e) {
+                log.warn("Dashboard section {} failed to load: {}", entry.name, e.getMessage());
+                mine.completeExceptionally(e);
+            } finally {
+                entry.inFlight.compareAndSet(mine, null);
+            }
+        });
+        return mine;
+    }
+
+    private long refreshAheadNanos(Entry<?> entry) {
+        return (long) (entry.ttl.toNanos() * refreshAhead);
+    }
+
+    private Duration ttl(String section) {
+        return environment.getProperty("app.dashboard.cache.ttl." + section, Duration.class, defaultTtl);
+    }
+
+    /**
+     * A section value and how old it was when served
+     */
+    public record Cached<T>(T value, long ageMs) {
+
+        /**
+         * Age in whole seconds, as used by the HTTP Age header
+         */
+        public String ageSeconds() {
+            return Long.toString(TimeUnit.MILLISECONDS.toSeconds(ageMs));
+        }
+    }
+
+    private record Snapshot<T>(T value, long loadedAtNanos) {
+        Cached<T> toCached(long now) {
+            return new Cached<>(value, TimeUnit.NANOSECONDS.toMillis(now - loadedAtNanos));
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String name;
+        private final Supplier<T> loader;
+        private final Duration ttl;
+        private final AtomicReference<CompletableFuture<Snapshot<T>>> inFlight = new AtomicReference<>();
+        private volatile Snapshot<T> snapshot;
+        private volatile long lastReadNanos;
+
+        private Entry(String name, Supplier<T> loader, Duration ttl) {
+            this.name = name;
+            this.loader = loader;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -2,80 +2,191 @@ package com.ecommerce.ecommerce.core.service;
 
 import com.ecommerce.ecommerce.api.dto.dashboard.*;
 import com.ecommerce.ecommerce.core.domain.entity.Order;
-import com.ecommerce.ecommerce.core.domain.entity.OrderItem;
-import com.ecommerce.ecommerce.core.domain.entity.Product;
+import com.ecommerce.ecommerce.core.domain.projection.OrderStatusBreakdown;
+import com.ecommerce.ecommerce.core.domain.projection.SalesTotals;
+import com.ecommerce.ecommerce.core.domain.projection.TopSellingProduct;
 import com.ecommerce.ecommerce.core.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service class for Dashboard operations.
- * Provides statistical data for admin dashboard.
+ * Provides statistical data for admin dashboard. Sections are computed by {@link DashboardSectionCache}
+ * in its own read-only transactions, so callers here never hold one while waiting.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class DashboardService {
 
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final CategoryRepository categoryRepository;
-    private final ReviewRepository reviewRepository;
     private final CartItemRepository cartItemRepository;
+    private final DailySalesService dailySalesService;
+    private final OrderService orderService;
+    private final TopProductsService topProductsService;
+    private final DashboardSectionCache sectionCache;
+    private final BusinessTimeSeries businessTimeSeries;
+    private final UniqueCounterService uniqueCounterService;
+
+    @Value("${app.dashboard.overview-budget:2s}")
+    private Duration overviewBudget;
 
     /**
-     * Get dashboard overview with all statistics
+     * Get dashboard overview with all statistics.
+     * Sections come from the refresh-ahead section cache; sections that are missing or expired load
+     * concurrently under a shared latency budget, and any that miss it are left null and reported in
+     * sectionTimings. The calling thread only waits, so it does not hold a transaction of its own.
      */
     public DashboardOverviewDTO getDashboardOverview() {
         log.info("Getting dashboard overview data");
+        long start = System.nanoTime();
+        long deadline = start + overviewBudget.toNanos();
+
+        DashboardOverviewDTO overview = new DashboardOverviewDTO();
+        List<Section<?>> sections = List.of(
+                new Section<>("salesStats", this::loadSalesStats, overview::setSalesStats),
+                new Section<>("productStats", this::loadProductStats, overview::setProductStats),
+                new Section<>("userStats", this::loadUserStats, overview::setUserStats),
+                new Section<>("orderStats", this::loadOrderStats, overview::setOrderStats),
+                new Section<>("recentOrders", this::loadRecentOrders, overview::setRecentOrders),
+                new Section<>("topProducts", this::loadTopProducts, overview::setTopProducts));
+
+        sections.forEach(section -> section.submit(sectionCache));
+
+        List<DashboardSectionTimingDTO> timings = new ArrayList<>(sections.size());
+        for (Section<?> section : sections) {
+            timings.add(section.await(deadline, start));
+        }
 
-        return DashboardOverviewDTO.builder()
-                .salesStats(getSalesStats())
-                .productStats(getProductStats())
-                .userStats(getUserStats())
-                .orderStats(getOrderStats())
-                .recentOrders(getRecentOrders())
-                .topProducts(getTopProducts())
-                .build();
+        overview.setSectionTimings(timings);
+        overview.setPartial(timings.stream().anyMatch(timing -> !"OK".equals(timing.getStatus())));
+        overview.setTotalDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (overview.isPartial()) {
+            log.warn("Dashboard overview returned partial results: {}", timings);
+        }
+        return overview;
     }
 
     /**
-     * Get sales statistics
+     * Get sales statistics, served from the section cache
      */
-    public SalesStatsDTO getSalesStats() {
-        LocalDateTime now = LocalDateTime.now();
+    public DashboardSectionCache.Cached<SalesStatsDTO> getSalesStats() {
+        return sectionCache.get("salesStats", this::loadSalesStats);
+    }
+
+    /**
+     * Get product statistics, served from the section cache
+     */
+    public DashboardSectionCache.Cached<ProductStatsDTO> getProductStats() {
+        return sectionCache.get("productStats", this::loadProductStats);
+    }
+
+    /**
+     * Get user statistics, served from the section cache
+     */
+    public DashboardSectionCache.Cached<UserStatsDTO> getUserStats() {
+        return sectionCache.get("userStats", this::loadUserStats);
+    }
+
+    /**
+     * Get order statistics, served from the section cache
+     */
+    public DashboardSectionCache.Cached<OrderStatsDTO> getOrderStats() {
+        return sectionCache.get("orderStats", this::loadOrderStats);
+    }
+
+    /**
+     * Get recent orders, served from the section cache
+     */
+    public DashboardSectionCache.Cached<RecentOrdersDTO> getRecentOrders() {
+        return sectionCache.get("recentOrders", this::loadRecentOrders);
+    }
+
+    /**
+     * Get top selling products, served from the section cache
+     */
+    public DashboardSectionCache.Cached<TopProductsDTO> getTopProducts() {
+        return sectionCache.get("topProducts", this::loadTopProducts);
+    }
+
+    /**
+     * Per-minute business time series from memory, for sparklines; all metrics when metric is null
+     */
+    public List<TimeSeriesDTO> getTimeSeries(BusinessTimeSeries.Metric metric, int minutes) {
+        int length = Math.max(1, Math.min(minutes, BusinessTimeSeries.MINUTES));
+        LocalDateTime start = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli((businessTimeSeries.currentMinute() - length + 1) * 60_000L), ZoneId.systemDefault());
+        List<BusinessTimeSeries.Metric> metrics = metric != null ? List.of(metric) : List.of(BusinessTimeSeries.Metric.values());
+        return metrics.stream()
+                .map(m -> TimeSeriesDTO.builder()
+                        .metric(m.name())
+                        .intervalSeconds(60)
+                        .start(start)
+                        .values(businessTimeSeries.getSeries(m, length))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Drop all cached sections so the next request recomputes them
+     */
+    public void invalidateCache() {
+        sectionCache.invalidateAll();
+    }
+
+    /**
+     * Compute sales statistics
+     */
+    private SalesStatsDTO loadSalesStats() {
         LocalDate today = LocalDate.now();
+        LocalDate tomorrow = today.plusDays(1);
         LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
         LocalDate startOfMonth = today.withDayOfMonth(1);
 
-        // Total revenue and orders
-        BigDecimal totalRevenue = orderRepository.getTotalRevenue().orElse(BigDecimal.ZERO);
-        long totalOrders = orderRepository.count();
+        // All figures come from the daily_sales rollup (a few rows per day) instead of scanning orders
+        SalesTotals allTime = dailySalesService.getAllTimeTotals();
+        BigDecimal totalRevenue = allTime.getRevenue();
+        long totalOrders = allTime.getOrderCount();
 
         // Monthly stats
-        BigDecimal monthlyRevenue = orderRepository.getRevenueForPeriod(startOfMonth.atStartOfDay(), now)
-                .orElse(BigDecimal.ZERO);
-        Long monthlyOrders = orderRepository.countOrdersForPeriod(startOfMonth.atStartOfDay(), now);
+        SalesTotals month = dailySalesService.getTotals(startOfMonth, tomorrow);
+        BigDecimal monthlyRevenue = month.getRevenue();
+        Long monthlyOrders = month.getOrderCount();
 
         // Weekly stats
-        BigDecimal weeklyRevenue = orderRepository.getRevenueForPeriod(startOfWeek.atStartOfDay(), now)
-                .orElse(BigDecimal.ZERO);
-        Long weeklyOrders = orderRepository.countOrdersForPeriod(startOfWeek.atStartOfDay(), now);
+        SalesTotals week = dailySalesService.getTotals(startOfWeek, tomorrow);
+        BigDecimal weeklyRevenue = week.getRevenue();
+        Long weeklyOrders = week.getOrderCount();
 
         // Daily stats
-        BigDecimal dailyRevenue = orderRepository.getRevenueForPeriod(today.atStartOfDay(), now)
-                .orElse(BigDecimal.ZERO);
-        Long dailyOrders = orderRepository.countOrdersForPeriod(today.atStartOfDay(), now);
+        SalesTotals day = dailySalesService.getTotals(today, tomorrow);
+        BigDecimal dailyRevenue = day.getRevenue();
+        Long dailyOrders = day.getOrderCount();
 
         // Calculate averages and growth rates
         BigDecimal averageOrderValue = totalOrders > 0 ?
@@ -101,9 +212,9 @@ public class DashboardService {
                 .build();
     }
     /**
-     * Get product statistics
+     * Compute product statistics
      */
-    public ProductStatsDTO getProductStats() {
+    private ProductStatsDTO loadProductStats() {
         Long totalProducts = productRepository.count();
         Long activeProducts = productRepository.countByIsActiveTrue();
         Long inactiveProducts = totalProducts - activeProducts;
@@ -111,12 +222,11 @@ public class DashboardService {
         Long outOfStockProducts = productRepository.countByStockQuantity(0);
         Long totalCategories = categoryRepository.count();
 
-        // Get top selling product (simplified)
-        var topProduct = productRepository.findTopSellingProduct();
-        Long topSellingProductId = topProduct.map(Product::getId).orElse(null);
-        String topSellingProductName = topProduct.map(Product::getName).orElse("N/A");
-        Long topSellingProductSales = topProduct.map(p -> p.getOrderItems().stream()
-                .mapToLong(OrderItem::getQuantity).sum()).orElse(0L);
+        // Best seller comes from the cached top products instead of loading its order items
+        var topProduct = topProductsService.getTopProducts().stream().findFirst();
+        Long topSellingProductId = topProduct.map(TopSellingProduct::getProductId).orElse(null);
+        String topSellingProductName = topProduct.map(TopSellingProduct::getProductName).orElse("N/A");
+        Long topSellingProductSales = topProduct.map(TopSellingProduct::getUnitsSold).orElse(0L);
 
         return ProductStatsDTO.builder()
                 .totalProducts(totalProducts)
@@ -132,9 +242,9 @@ public class DashboardService {
     }
 
     /**
-     * Get user statistics
+     * Compute user statistics
      */
-    public UserStatsDTO getUserStats() {
+    private UserStatsDTO loadUserStats() {
         LocalDateTime now = LocalDateTime.now();
         LocalDate today = LocalDate.now();
         LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
@@ -163,20 +273,34 @@ public class DashboardService {
                 .userGrowthPercentage(userGrowth)
                 .totalAdmins(totalAdmins)
                 .totalCustomers(totalCustomers)
+                .uniqueBuyers(uniqueCounts(UniqueCounterService.Metric.BUYERS, today, startOfWeek, startOfMonth))
+                .uniqueProductViewers(uniqueCounts(UniqueCounterService.Metric.PRODUCT_VIEWERS, today, startOfWeek, startOfMonth))
+                .uniqueSearchers(uniqueCounts(UniqueCounterService.Metric.SEARCHERS, today, startOfWeek, startOfMonth))
+                .build();
+    }
+
+    private UserStatsDTO.UniqueCountsDTO uniqueCounts(UniqueCounterService.Metric metric, LocalDate today,
+                                                      LocalDate startOfWeek, LocalDate startOfMonth) {
+        return UserStatsDTO.UniqueCountsDTO.builder()
+                .today(uniqueCounterService.countSince(metric, today))
+                .thisWeek(uniqueCounterService.countSince(metric, startOfWeek))
+                .thisMonth(uniqueCounterService.countSince(metric, startOfMonth))
                 .build();
     }
 
     /**
-     * Get order statistics
+     * Compute order statistics
      */
-    public OrderStatsDTO getOrderStats() {
-        Long totalOrders = orderRepository.count();
-        Long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("PENDING"));
-        Long processingOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("PROCESSING"));
-        Long shippedOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("SHIPPED"));
-        Long deliveredOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("DELIVERED"));
-        Long cancelledOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("CANCELLED"));
-        Long returnedOrders = orderRepository.countByStatus(Order.OrderStatus.valueOf("RETURNED"));
+    private OrderStatsDTO loadOrderStats() {
+        OrderStatusBreakdown breakdown = orderService.getStatusBreakdown();
+        Long totalOrders = breakdown.getTotal();
+        Long pendingOrders = breakdown.count(Order.OrderStatus.PENDING);
+        Long processingOrders = breakdown.count(Order.OrderStatus.PROCESSING);
+        Long shippedOrders = breakdown.count(Order.OrderStatus.SHIPPED);
+        Long deliveredOrders = breakdown.count(Order.OrderStatus.DELIVERED);
+        Long cancelledOrders = breakdown.count(Order.OrderStatus.CANCELLED);
+        // There is no RETURNED status; returns end up as refunded orders
+        Long returnedOrders = breakdown.count(Order.OrderStatus.REFUNDED);
 
         // Calculate completion rate
         Long completedOrders = deliveredOrders;
@@ -200,9 +324,9 @@ public class DashboardService {
     }
 
     /**
-     * Get recent orders
+     * Compute recent orders
      */
-    public RecentOrdersDTO getRecentOrders() {
+    private RecentOrdersDTO loadRecentOrders() {
         var recentOrders = orderRepository.findTop10ByOrderByCreatedAtDesc()
                 .stream()
                 .map(order -> RecentOrdersDTO.RecentOrderItemDTO.builder()
@@ -222,21 +346,18 @@ public class DashboardService {
     }
 
     /**
-     * Get top selling products
+     * Compute top selling products
      */
-    public TopProductsDTO getTopProducts() {
-        var topProducts = productRepository.findTopSellingProducts(org.springframework.data.domain.Pageable.unpaged())
-                .stream()
+    private TopProductsDTO loadTopProducts() {
+        var topProducts = topProductsService.getTopProducts().stream()
                 .map(product -> TopProductsDTO.TopProductItemDTO.builder()
-                        .productId(product.getId())
-                        .productName(product.getName())
-                        .categoryName(product.getCategory() != null ? product.getCategory().getName() : "N/A")
-                        .totalSold(product.getOrderItems().stream().mapToLong(oi -> oi.getQuantity()).sum())
-                        .totalRevenue(product.getPrice().multiply(BigDecimal.valueOf(
-                                product.getOrderItems().stream().mapToLong(oi -> oi.getQuantity()).sum())))
-                        .productImage(product.getImages() != null && !product.getImages().isEmpty() ?
-                                product.getImages().get(0).getImageUrl() : null)
-                        .averageRating(BigDecimal.valueOf(calculateAverageRating(product.getId())))
+                        .productId(product.getProductId())
+                        .productName(product.getProductName())
+                        .categoryName(product.getCategoryName())
+                        .totalSold(product.getUnitsSold())
+                        .totalRevenue(product.getRevenue())
+                        .productImage(product.getProductImage())
+                        .averageRating(product.getAverageRating())
                         .build())
                 .collect(Collectors.toList());
 
@@ -255,22 +376,13 @@ public class DashboardService {
     }
 
     private BigDecimal getPreviousMonthRevenue() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate firstDayThisMonth = now.toLocalDate().withDayOfMonth(1);
-        LocalDate firstDayLastMonth = firstDayThisMonth.minusMonths(1);
-        LocalDate lastDayLastMonth = firstDayThisMonth.minusDays(1);
-
-        return orderRepository.getRevenueForPeriod(firstDayLastMonth.atStartOfDay(), lastDayLastMonth.atTime(23, 59, 59))
-                .orElse(BigDecimal.ZERO);
+        LocalDate firstDayThisMonth = LocalDate.now().withDayOfMonth(1);
+        return dailySalesService.getTotals(firstDayThisMonth.minusMonths(1), firstDayThisMonth).getRevenue();
     }
 
     private Long getPreviousMonthOrders() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate firstDayThisMonth = now.toLocalDate().withDayOfMonth(1);
-        LocalDate firstDayLastMonth = firstDayThisMonth.minusMonths(1);
-        LocalDate lastDayLastMonth = firstDayThisMonth.minusDays(1);
-
-        return orderRepository.countOrdersForPeriod(firstDayLastMonth.atStartOfDay(), lastDayLastMonth.atTime(23, 59, 59));
+        LocalDate firstDayThisMonth = LocalDate.now().withDayOfMonth(1);
+        return dailySalesService.getTotals(firstDayThisMonth.minusMonths(1), firstDayThisMonth).getOrderCount();
     }
 
     private Long getPreviousMonthNewUsers() {
@@ -282,7 +394,51 @@ public class DashboardService {
         return userRepository.countByCreatedAtBetween(firstDayLastMonth.atStartOfDay(), lastDayLastMonth.atTime(23, 59, 59));
     }
 
-    private Double calculateAverageRating(Long productId) {
-        return reviewRepository.findAverageRatingByProductId(productId).orElse(0.0);
+    // Overview sections
+
+    /**
+     * One independently cached part of the overview
+     */
+    private static final class Section<T> {
+        private final String name;
+        private final Supplier<T> loader;
+        private final Consumer<T> target;
+        private CompletableFuture<DashboardSectionCache.Cached<T>> future;
+        private long submittedNanos;
+        private volatile long durationNanos;
+
+        Section(String name, Supplier<T> loader, Consumer<T> target) {
+            this.name = name;
+            this.loader = loader;
+            this.target = target;
+        }
+
+        void submit(DashboardSectionCache cache) {
+            submittedNanos = System.nanoTime();
+            future = cache.getAsync(name, loader);
+            future.whenComplete((cached, error) -> durationNanos = System.nanoTime() - submittedNanos);
+        }
+
+        DashboardSectionTimingDTO await(long deadline, long overviewStart) {
+            DashboardSectionTimingDTO.DashboardSectionTimingDTOBuilder timing = DashboardSectionTimingDTO.builder().section(name);
+            try {
+                // Waiting does not cancel the load: a late section still fills the cache for the next request
+                DashboardSectionCache.Cached<T> cached = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                target.accept(cached.value());
+                return timing.status("OK").durationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                        .cacheAgeMs(cached.ageMs()).build();
+            } catch (TimeoutException e) {
+                return timing.status("TIMEOUT")
+                        .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - overviewStart)).build();
+            } catch (ExecutionException e) {
+                log.error("Dashboard section {} failed", name, e.getCause());
+                return timing.status("FAILED").durationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                        .error(e.getCause().getMessage()).build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return timing.status("TIMEOUT")
+                        .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - overviewStart)).build();
+            }
+        }
     }
 }
@@ -0,0 +1,341 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.dashboard.DashboardEventDTO;
+import com.ecommerce.ecommerce.api.dto.dashboard.LiveDashboardDTO;
+import com.ecommerce.ecommerce.core.domain.projection.OrderStatusBreakdown;
+import com.ecommerce.ecommerce.core.domain.projection.SalesTotals;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import com.ecommerce.ecommerce.core.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class for the live admin dashboard stream.
+ * Keeps one shared dashboard state per node, applies change events to it and pushes each change
+ * as a server-sent event to every connected dashboard. Events travel over Redis pub/sub so
+ * dashboards connected to any node see changes made on all nodes. Each frame is serialized once
+ * and queued to all subscribers; the state is only recomputed from the database when the first
+ * dashboard connects, on a periodic re-sync and at midnight. The state lock only covers changes to
+ * the state and queueing frames: each subscriber's frames are written in order by its own task on
+ * the dashboard executor, and database loads run outside the lock, so a slow client or query never
+ * holds up the Redis listener or other subscribers.
+ */
+@Service
+@Slf4j
+public class DashboardStreamService implements MessageListener {
+
+    public static final String CHANNEL = "dashboard:events";
+
+    public static final String USER_REGISTERED = "USER_REGISTERED";
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+
+    /** Frames a subscriber may fall behind by before it is dropped */
+    private static final int MAX_PENDING_FRAMES = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final DailySalesService dailySalesService;
+    private final OrderService orderService;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService sender;
+    private final long emitterTimeoutMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Shared state, null while nobody is connected; guarded by this */
+    private LiveDashboardDTO state;
+
+    public DashboardStreamService(StringRedisTemplate redisTemplate,
+                                  ObjectMapper objectMapper,
+                                  DailySalesService dailySalesService,
+                                  OrderService orderService,
+                                  UserRepository userRepository,
+                                  ProductRepository productRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("dashboardExecutor") ExecutorService sender,
+                                  @Value("${app.dashboard.stream.timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.dailySalesService = dailySalesService;
+        this.orderService = orderService;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.sender = sender;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    /**
+     * Open a stream for one dashboard. The first frame is a "snapshot" of the shared state,
+     * followed by a "delta" frame per change and a fresh "snapshot" after every re-sync.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        LiveDashboardDTO loaded = hasState() ? null : loadState();
+        // Queued under the same lock as broadcasts so no delta falls between snapshot and subscription
+        synchronized (this) {
+            if (state == null) {
+                state = loaded != null ? loaded : loadState();
+            }
+            subscribers.add(subscriber);
+            subscriber.enqueue(frame("snapshot", state.getVersion(), state));
+        }
+        log.debug("Dashboard stream subscribed, {} active", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Publish a change to the dashboards on every node
+     */
+    public void publish(DashboardEventDTO event) {
+        event.setOccurredAt(LocalDateTime.now());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Could not publish dashboard event {} to Redis, applying locally: {}", event.getType(), e.getMessage());
+            apply(event);
+        }
+    }
+
+    /**
+     * Publish once the current transaction commits, or right away outside a transaction
+     */
+    public void publishAfterCommit(DashboardEventDTO event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            apply(objectMapper.readValue(message.getBody(), DashboardEventDTO.class));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed dashboard event: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the shared state from the database and push it as a snapshot.
+     * Corrects drift from lost events; the state is dropped while nobody is connected.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.resync-ms:60000}")
+    public void resync() {
+        if (subscribers.isEmpty()) {
+            synchronized (this) {
+                if (subscribers.isEmpty()) {
+                    state = null;
+                }
+            }
+            return;
+        }
+        LiveDashboardDTO loaded = loadState();
+        synchronized (this) {
+            long version = state != null ? state.getVersion() + 1 : 0;
+            loaded.setVersion(version);
+            state = loaded;
+            broadcast(frame("snapshot", version, state));
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    private void apply(DashboardEventDTO event) {
+        synchronized (this) {
+            if (state == null) {
+                return;
+            }
+            if (LocalDate.now().equals(state.getDate())) {
+                applyToState(event);
+                return;
+            }
+        }
+        // A new day: today's figures start over
+        resync();
+    }
+
+    private synchronized void applyToState(DashboardEventDTO event) {
+
+        boolean today = state.getDate().equals(event.getOrderDate());
+        BigDecimal revenueDelta = event.getRevenueDelta() != null ? event.getRevenueDelta() : BigDecimal.ZERO;
+        Map<String, Long> byStatus = state.getOrdersByStatus();
+        switch (event.getType()) {
+            case USER_REGISTERED -> state.setTodayNewUsers(state.getTodayNewUsers() + 1);
+            case STOCK_CHANGED -> {
+                if (event.getPreviouslyInStock() != null && !event.getPreviouslyInStock().equals(event.getInStock())) {
+                    state.setOutOfStockProducts(state.getOutOfStockProducts() + (event.getInStock() ? -1 : 1));
+                }
+            }
+            default -> {
+                // Order lifecycle events
+                if (event.getPreviousStatus() == null) {
+                    if (today) {
+                        state.setTodayOrders(state.getTodayOrders() + 1);
+                    }
+                } else {
+                    byStatus.merge(event.getPreviousStatus(), -1L, Long::sum);
+                }
+                byStatus.merge(event.getStatus(), 1L, Long::sum);
+                if (today) {
+                    state.setTodayRevenue(state.getTodayRevenue().add(revenueDelta));
+                }
+            }
+        }
+
+        state.setVersion(state.getVersion() + 1);
+        state.setUpdatedAt(LocalDateTime.now());
+        event.setVersion(state.getVersion());
+        broadcast(frame("delta", event.getVersion(), event));
+    }
+
+    private LiveDashboardDTO loadState() {
+        return readOnly.execute(status -> {
+            LocalDate today = LocalDate.now();
+            SalesTotals totals = dailySalesService.getTotals(today, today.plusDays(1));
+            OrderStatusBreakdown breakdown = orderService.getStatusBreakdown();
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            breakdown.getCounts().forEach((orderStatus, count) -> byStatus.put(orderStatus.name(), count));
+
+            return LiveDashboardDTO.builder()
+                    .date(today)
+                    .todayRevenue(totals.getRevenue())
+                    .todayOrders(totals.getOrderCount())
+                    .todayNewUsers(userRepository.countByCreatedAtBetween(
+                            today.atStartOfDay(), today.plusDays(1).atStartOfDay().minusNanos(1)))
+                    .ordersByStatus(byStatus)
+                    .outOfStockProducts(productRepository.countByIsActiveTrueAndInStockFalse())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        });
+    }
+
+    /**
+     * Serialize a frame once so it can be written to every subscriber
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, long version, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .id(Long.toString(version))
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dashboard " + name, e);
+        }
+    }
+
+    private synchronized boolean hasState() {
+        return state != null;
+    }
+
+    /**
+     * Queue a frame to every subscriber; callers changing the state hold the lock, so frames queue in version order
+     */
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(frame);
+        }
+    }
+
+    /**
+     * One connected dashboard with its own frame queue, drained in order by at most one task at a time
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (pending.size() >= MAX_PENDING_FRAMES) {
+                drop("too far behind");
+                return;
+            }
+            pending.add(frame);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                while ((frame = pending.poll()) != null) {
+                    emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop(e.getMessage());
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A frame queued after the last poll but before the flag was cleared
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drop(String reason) {
+            log.debug("Dropping dashboard subscriber: {}", reason);
+            subscribers.remove(this);
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartSummaryResponse;
+import com.ecommerce.ecommerce.core.exception.ErrorCode;
+import com.ecommerce.ecommerce.core.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis store for carts of anonymous visitors, keyed by the guest id of their signed cookie.
+ * Each cart is one Redis hash in the {@link RedisCartHash} layout plus a version ("#", the summary
+ * ETag) and the last change ("@", epoch millis). Guest carts never touch the database: they expire
+ * after app.cart.guest.ttl without activity, or are taken whole when the visitor logs in.
+ */
+@Component
+@Slf4j
+public class GuestCartStore {
+
+    private static final String KEY_PREFIX = "cart:guest:";
+    private static final String VERSION = RedisCartHash.MARKER;
+    private static final String MODIFIED = "@";
+    private static final String ITEM = RedisCartHash.ITEM;
+    private static final String QUANTITY = RedisCartHash.QUANTITY;
+
+    private final RedisCartHash cartHash;
+    private final Duration ttl;
+
+    public GuestCartStore(StringRedisTemplate redisTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${app.cart.guest.ttl:14d}") Duration ttl) {
+        this.cartHash = new RedisCartHash(redisTemplate, objectMapper);
+        this.ttl = ttl;
+    }
+
+    /**
+     * The guest's cart, newest line first; empty when it expired or never existed
+     */
+    public CartResponse getCart(String guestId) {
+        return cartHash.toCart(entries(guestId));
+    }
+
+    /**
+     * Item count, subtotal and version of the guest's cart; no version when it is empty
+     */
+    public CartSummaryResponse getSummary(String guestId) {
+        Map<String, String> fields = entries(guestId);
+        CartResponse cart = cartHash.toCart(fields);
+        String version = fields.get(VERSION);
+        String modified = fields.get(MODIFIED);
+        return CartSummaryResponse.builder()
+                .itemCount(cart.getTotalItems())
+                .subtotal(cart.getTotalPrice())
+                .currency(cart.getCurrency())
+                .lastModified(modified != null
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(modified)), ZoneId.systemDefault())
+                        : LocalDateTime.now())
+                .version(version != null ? Long.valueOf(version) : null)
+                .build();
+    }
+
+    /**
+     * Add a quantity of a line, keeping the snapshot taken when the line was first added
+     */
+    public CartItemResponse add(String guestId, CartItemResponse line, int quantity) {
+        String key = key(guestId);
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().putIfAbsent(key, ITEM + line.getId(), cartHash.write(line));
+            operations.opsForHash().increment(key, QUANTITY + line.getId(), quantity);
+            touch(operations, key);
+        });
+        line.setQuantity(((Number) results.get(1)).intValue());
+        return line;
+    }
+
+    /**
+     * Set the quantity of an existing line
+     */
+    public CartItemResponse update(String guestId, String lineId, int quantity) {
+        String key = key(guestId);
+        String item = cartHash.hash().get(key, ITEM + lineId);
+        if (item == null) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", lineId);
+        }
+        cartHash.transaction(operations -> {
+            operations.opsForHash().put(key, QUANTITY + lineId, Integer.toString(quantity));
+            touch(operations, key);
+        });
+        CartItemResponse line = cartHash.read(item);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    public void remove(String guestId, String lineId) {
+        String key = key(guestId);
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().delete(key, ITEM + lineId, QUANTITY + lineId);
+            touch(operations, key);
+        });
+        if (((Number) results.get(0)).longValue() == 0) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", lineId);
+        }
+    }
+
+    /**
+     * Replace the whole cart at once
+     */
+    public void replace(String guestId, List<CartItemResponse> lines) {
+        String key = key(guestId);
+        Map<String, String> fields = cartHash.fields(lines);
+        cartHash.transaction(operations -> {
+            operations.delete(key);
+            if (!fields.isEmpty()) {
+                operations.opsForHash().putAll(key, fields);
+            }
+            touch(operations, key);
+        });
+    }
+
+    public void clear(String guestId) {
+        replace(guestId, List.of());
+    }
+
+    /**
+     * Read and delete the guest's cart atomically, so concurrent logins cannot merge it twice
+     */
+    public List<CartItemResponse> take(String guestId) {
+        String key = key(guestId);
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().entries(key);
+            operations.delete(key);
+        });
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> entries = (Map<Object, Object>) results.get(0);
+        Map<String, String> fields = new HashMap<>();
+        entries.forEach((field, value) -> fields.put(field.toString(), value.toString()));
+        return cartHash.lines(fields);
+    }
+
+    /**
+     * Put taken lines back, e.g. when merging them into the user's cart failed
+     */
+    public void restore(String guestId, List<CartItemResponse> lines) {
+        String key = key(guestId);
+        Map<String, String> fields = cartHash.fields(lines);
+        cartHash.transaction(operations -> {
+            fields.forEach((field, value) -> operations.opsForHash().putIfAbsent(key, field, value));
+            touch(operations, key);
+        });
+        log.info("Restored {} lines to guest cart {}", lines.size(), guestId);
+    }
+
+    /**
+     * Bump the version and the last change, and restart the idle TTL. A new hash seeds its version with
+     * the current time, so a cart cleared or recreated does not hand out versions a client has already seen.
+     */
+    private void touch(RedisOperations<String, String> operations, String key) {
+        long now = System.currentTimeMillis();
+        operations.opsForHash().putIfAbsent(key, VERSION, Long.toString(now));
+        operations.opsForHash().increment(key, VERSION, 1);
+        operations.opsForHash().put(key, MODIFIED, Long.toString(now));
+        operations.expire(key, ttl);
+    }
+
+    private Map<String, String> entries(String guestId) {
+        return guestId != null ? cartHash.hash().entries(key(guestId)) : Map.of();
+    }
+
+    private static String key(String guestId) {
+        return KEY_PREFIX + guestId;
+    }
+}
@@ -0,0 +1,421 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.ecommerce.ecommerce.api.mapper.DtoMapper;
+import com.ecommerce.ecommerce.core.domain.entity.CartItem;
+import com.ecommerce.ecommerce.core.domain.projection.CatalogLine;
+import com.ecommerce.ecommerce.core.exception.ErrorCode;
+import com.ecommerce.ecommerce.core.exception.ResourceNotFoundException;
+import com.ecommerce.ecommerce.core.repository.CartItemRepository;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import com.ecommerce.ecommerce.core.repository.ProductVariantRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional Redis store for hot carts (app.cart.store=redis).
+ * Each user's cart is one Redis hash in the {@link RedisCartHash} layout, plus a marker field so an
+ * empty cart is still distinguishable from one that was never loaded. A line is identified by its product and variant,
+ * which is also how it is matched to its cart_items row. Reads are a single HGETALL plus one catalog
+ * query, so lines show current prices and stock like stored carts do; mutations mark the user dirty
+ * and a scheduled write-behind flush persists dirty carts to cart_items in batches.
+ */
+@Component
+@Slf4j
+public class HotCartStore {
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String DIRTY_KEY = "cart:dirty";
+    private static final String MARKER = RedisCartHash.MARKER;
+    private static final String ITEM = RedisCartHash.ITEM;
+    private static final String QUANTITY = RedisCartHash.QUANTITY;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCartHash cartHash;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final DtoMapper mapper;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate writer;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int batchSize;
+
+    public HotCartStore(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        CartItemRepository cartItemRepository,
+                        ProductRepository productRepository,
+                        ProductVariantRepository productVariantRepository,
+                        DtoMapper mapper,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.cart.store:database}") String store,
+                        @Value("${app.cart.hot.ttl:7d}") Duration ttl,
+                        @Value("${app.cart.hot.batch-size:200}") int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.cartHash = new RedisCartHash(redisTemplate, objectMapper);
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.mapper = mapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Persistence runs in its own transaction so a failed flush never rolls back the caller
+        this.writer = new TransactionTemplate(transactionManager);
+        this.writer.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = "redis".equalsIgnoreCase(store);
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Line id of a product, optionally in a variant
+     */
+    public static String lineId(Long productId, Long variantId) {
+        return variantId != null ? productId + ":" + variantId : productId.toString();
+    }
+
+    /**
+     * The user's cart at current catalog prices, newest line first
+     */
+    public CartResponse getCart(Long userId) {
+        List<CartItemResponse> lines = getLines(userId);
+        reprice(lines);
+        return cartHash.toCart(lines);
+    }
+
+    /**
+     * The user's cart lines as added, each with the price it had then
+     */
+    public List<CartItemResponse> getLines(Long userId) {
+        Map<String, String> fields = cartHash.hash().entries(key(userId));
+        if (fields.isEmpty()) {
+            fields = load(userId);
+        }
+        return cartHash.lines(fields);
+    }
+
+    /**
+     * Add a quantity of a line, keeping the snapshot taken when the line was first added
+     */
+    public CartItemResponse add(Long userId, CartItemResponse line, int quantity) {
+        String key = ensureLoaded(userId);
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().putIfAbsent(key, ITEM + line.getId(), cartHash.write(line));
+            operations.opsForHash().increment(key, QUANTITY + line.getId(), quantity);
+            touch(operations, userId, key);
+        });
+        line.setQuantity(((Number) results.get(1)).intValue());
+        return line;
+    }
+
+    /**
+     * Set the quantity of an existing line
+     */
+    public LineChange update(Long userId, String lineId, int quantity) {
+        String key = ensureLoaded(userId);
+        String item = cartHash.hash().get(key, ITEM + lineId);
+        if (item == null) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", lineId);
+        }
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().get(key, QUANTITY + lineId);
+            operations.opsForHash().put(key, QUANTITY + lineId, Integer.toString(quantity));
+            touch(operations, userId, key);
+        });
+        CartItemResponse line = cartHash.read(item);
+        line.setQuantity(quantity);
+        return new LineChange(line, quantityOf(results.get(0)));
+    }
+
+    /**
+     * Remove a line, returning it with the quantity it had
+     */
+    public LineChange remove(Long userId, String lineId) {
+        String key = ensureLoaded(userId);
+        List<Object> results = cartHash.transaction(operations -> {
+            operations.opsForHash().get(key, ITEM + lineId);
+            operations.opsForHash().get(key, QUANTITY + lineId);
+            operations.opsForHash().delete(key, ITEM + lineId, QUANTITY + lineId);
+            touch(operations, userId, key);
+        });
+        if (results.get(0) == null) {
+            throw new ResourceNotFoundException(ErrorCode.CART_ITEM_NOT_FOUND, "CartItem", lineId);
+        }
+        CartItemResponse line = cartHash.read((String) results.get(0));
+        line.setQuantity(0);
+        return new LineChange(line, quantityOf(results.get(1)));
+    }
+
+    /**
+     * Add several lines in one MULTI, summing quantities with lines already in the cart
+     */
+    public void merge(Long userId, List<CartItemResponse> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        String key = ensureLoaded(userId);
+        cartHash.transaction(operations -> {
+            for (CartItemResponse line : lines) {
+                operations.opsForHash().putIfAbsent(key, ITEM + line.getId(), cartHash.write(line));
+                operations.opsForHash().increment(key, QUANTITY + line.getId(), line.getQuantity());
+            }
+            touch(operations, userId, key);
+        });
+    }
+
+    public void clear(Long userId) {
+        replace(userId, List.of());
+    }
+
+    /**
+     * Replace the whole cart at once
+     */
+    public void replace(Long userId, List<CartItemResponse> lines) {
+        Map<String, String> fields = new HashMap<>(cartHash.fields(lines));
+        fields.put(MARKER, "1");
+        String key = key(userId);
+        cartHash.transaction(operations -> {
+            operations.delete(key);
+            operations.opsForHash().putAll(key, fields);
+            touch(operations, userId, key);
+        });
+    }
+
+    /**
+     * Load the cart into Redis at login so the first reads are already hot
+     */
+    public void warm(Long userId) {
+        try {
+            ensureLoaded(userId);
+        } catch (DataAccessException e) {
+            log.warn("Could not warm cart for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Persist the user's cart now, e.g. before checkout. Written even when it is not marked dirty, as a
+     * running flush may have taken it. Throws if it cannot be written; the cart is then flushed again later.
+     */
+    public void persist(Long userId) {
+        redisTemplate.opsForSet().remove(DIRTY_KEY, userId.toString());
+        try {
+            write(List.of(userId));
+        } catch (RuntimeException e) {
+            redisTemplate.opsForSet().add(DIRTY_KEY, userId.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * Write-behind: persist dirty carts to cart_items, a batch of users per transaction
+     */
+    @Scheduled(fixedDelayString = "${app.cart.hot.flush-ms:2000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<String> userIds;
+        do {
+            userIds = redisTemplate.opsForSet().pop(DIRTY_KEY, batchSize);
+            if (userIds == null || userIds.isEmpty()) {
+                return;
+            }
+            persist(userIds.stream().map(Long::valueOf).toList());
+        } while (userIds.size() == batchSize);
+    }
+
+    private void persist(List<Long> userIds) {
+        try {
+            write(userIds);
+        } catch (RuntimeException e) {
+            log.warn("Could not persist {} hot carts, retrying later: {}", userIds.size(), e.getMessage());
+            redisTemplate.opsForSet().add(DIRTY_KEY, userIds.stream().map(String::valueOf).toArray(String[]::new));
+        }
+    }
+
+    private void write(List<Long> userIds) {
+        List<Object> carts = redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                HashOperations<String, Object, Object> hash = ((RedisOperations<String, String>) operations).opsForHash();
+                userIds.forEach(userId -> hash.entries(key(userId)));
+                return null;
+            }
+        });
+
+        Map<Long, Map<String, CartItemResponse>> wanted = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> fields = (Map<String, String>) carts.get(i);
+            // An expired or missing hash says nothing about the cart, so its rows are left alone
+            if (fields != null && !fields.isEmpty()) {
+                Map<String, CartItemResponse> lines = new HashMap<>();
+                cartHash.lines(fields).forEach(line -> lines.put(line.getId(), line));
+                wanted.put(userIds.get(i), lines);
+            }
+        }
+        if (!wanted.isEmpty()) {
+            writer.executeWithoutResult(status -> store(wanted));
+        }
+        log.debug("Persisted {} hot carts", wanted.size());
+    }
+
+    /**
+     * Diff the stored rows of the batch against the Redis carts: removed lines are deleted in one
+     * batch, new and changed lines are upserted with one statement per user
+     */
+    private void store(Map<Long, Map<String, CartItemResponse>> wanted) {
+        List<Long> removed = new ArrayList<>();
+        for (CartItem item : cartItemRepository.findByUserIdIn(wanted.keySet())) {
+            Map<String, CartItemResponse> lines = wanted.get(item.getUser().getId());
+            String lineId = lineId(item.getProduct().getId(),
+                    item.getProductVariant() != null ? item.getProductVariant().getId() : null);
+            CartItemResponse line = lines.get(lineId);
+            if (line == null) {
+                removed.add(item.getId());
+            } else if (line.getQuantity().equals(item.getQuantity())) {
+                lines.remove(lineId);
+            }
+        }
+        if (!removed.isEmpty()) {
+            cartItemRepository.deleteAllByIdInBatch(removed);
+        }
+
+        wanted.forEach((userId, lines) -> {
+            if (!lines.isEmpty()) {
+                cartItemRepository.upsertLines(userId, lines.values().stream()
+                        .map(line -> CartItem.builder()
+                                .product(productRepository.getReferenceById(Long.valueOf(line.getProductId())))
+                                .productVariant(line.getVariantId() != null
+                                        ? productVariantRepository.getReferenceById(Long.valueOf(line.getVariantId()))
+                                        : null)
+                                .quantity(line.getQuantity())
+                                .build())
+                        .toList());
+            }
+        });
+    }
+
+    /**
+     * Set each line's price and available quantity from the catalog, with one query for the whole cart
+     */
+    private void reprice(List<CartItemResponse> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (CartItemResponse line : lines) {
+            productIds.add(Long.valueOf(line.getProductId()));
+            if (line.getVariantId() != null) {
+                variantIds.add(Long.valueOf(line.getVariantId()));
+            }
+        }
+        Map<Long, CatalogLine> products = new HashMap<>();
+        Map<Long, CatalogLine> variants = new HashMap<>();
+        readOnly.executeWithoutResult(status -> {
+            for (CatalogLine row : productRepository.findCatalogLines(productIds, variantIds)) {
+                products.putIfAbsent(row.getProductId(), row);
+                if (row.getVariantId() != null) {
+                    variants.put(row.getVariantId(), row);
+                }
+            }
+        });
+
+        for (CartItemResponse line : lines) {
+            CatalogLine product = products.get(Long.valueOf(line.getProductId()));
+            if (product == null) {
+                continue;
+            }
+            CatalogLine variant = line.getVariantId() != null ? variants.get(Long.valueOf(line.getVariantId())) : null;
+            if (variant != null) {
+                line.setPrice(variant.getVariantPrice() != null ? variant.getVariantPrice() : product.getProductPrice());
+                line.setMaxQuantity(variant.getVariantStock());
+            } else if (line.getVariantId() == null) {
+                line.setPrice(product.getProductPrice());
+                line.setMaxQuantity(product.getProductStock());
+            }
+        }
+    }
+
+    private String ensureLoaded(Long userId) {
+        String key = key(userId);
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            load(userId);
+        }
+        return key;
+    }
+
+    /**
+     * Copy the stored cart into Redis. Fields are only set if absent, so a concurrent mutation is not overwritten.
+     */
+    private Map<String, String> load(Long userId) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(MARKER, "1");
+        readOnly.executeWithoutResult(status -> {
+            for (CartItem item : cartItemRepository.findWithProductsByUserId(userId)) {
+                CartItemResponse line = mapper.toCartItemResponseDTO(item);
+                line.setId(lineId(item.getProduct().getId(),
+                        item.getProductVariant() != null ? item.getProductVariant().getId() : null));
+                fields.putAll(cartHash.fields(List.of(line)));
+            }
+        });
+
+        String key = key(userId);
+        cartHash.transaction(operations -> {
+            fields.forEach((field, value) -> operations.opsForHash().putIfAbsent(key, field, value));
+            operations.expire(key, ttl);
+        });
+        return fields;
+    }
+
+    private void touch(RedisOperations<String, String> operations, Long userId, String key) {
+        operations.opsForSet().add(DIRTY_KEY, userId.toString());
+        operations.expire(key, ttl);
+    }
+
+    private static int quantityOf(Object value) {
+        return value != null ? Integer.parseInt(value.toString()) : 0;
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * A line after a change and the quantity it had before
+     */
+    public record LineChange(CartItemResponse line, int previousQuantity) {
+
+        public int quantityDelta() {
+            return line.getQuantity() - previousQuantity;
+        }
+    }
+}
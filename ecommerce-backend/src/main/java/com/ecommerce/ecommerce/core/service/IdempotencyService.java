@@ -0,0 +1,251 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.exception.BusinessException;
+import com.ecommerce.ecommerce.core.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service class for idempotent request handling.
+ * Records each idempotency key with a fingerprint of the request and its result in Redis,
+ * keeps recently completed keys in memory as a fast path and coalesces concurrent duplicates
+ * on this node onto the request that is already in flight. A key is first claimed for a short
+ * lease (app.idempotency.lease, longer than any request should take) and only kept for the full
+ * ttl once its result is recorded, so a node crashing mid-request blocks retries for one lease.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING_MARKER = "P";
+    private static final String DONE_MARKER = "D";
+    private static final String SEPARATOR = "|";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_LOCAL_ENTRIES = 10_000;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration inFlightWait;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Completed> completed = new ConcurrentHashMap<>();
+
+    public IdempotencyService(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.lease:60s}") Duration lease,
+                              @Value("${app.idempotency.in-flight-wait:10s}") Duration inFlightWait) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.inFlightWait = inFlightWait;
+    }
+
+    /**
+     * Run an action at most once per (scope, key) within the configured window.
+     * Replays with the same fingerprint get the original result; replays with a different
+     * fingerprint are rejected.
+     *
+     * @param scope       namespace for the key, e.g. "order:42" for a user's orders
+     * @param key         client supplied idempotency key
+     * @param fingerprint hash of the request payload, see {@link #fingerprint(Object)}
+     * @param action      the side effect to run, returning a result that can be replayed
+     */
+    public String execute(String scope, String key, String fingerprint, Supplier<String> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(ErrorCode.VALIDATION_FAILED,
+                    "Idempotency key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + ":" + key;
+
+        // Fast path: completed on this node recently
+        Completed local = completed.get(cacheKey);
+        if (local != null) {
+            if (!local.isExpired()) {
+                return replay(local.fingerprint(), local.result(), fingerprint);
+            }
+            completed.remove(cacheKey, local);
+        }
+
+        // Coalesce with a duplicate already running on this node
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            return await(running.result());
+        }
+
+        boolean acquired = false;
+        try {
+            String redisKey = KEY_PREFIX + cacheKey;
+            acquired = tryAcquire(redisKey, fingerprint);
+            String result;
+            if (acquired) {
+                result = action.get();
+                store(redisKey, fingerprint, result);
+            } else {
+                result = awaitRemote(redisKey, fingerprint);
+            }
+            remember(cacheKey, fingerprint, result);
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            if (acquired) {
+                release(KEY_PREFIX + cacheKey);
+            }
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * SHA-256 fingerprint of a request payload
+     */
+    public String fingerprint(Object payload) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    /**
+     * Claim the key in Redis for one lease. A key completed elsewhere is treated as not acquired so
+     * the caller reads the stored result. If Redis is unavailable, fall back to
+     * node-local coalescing only.
+     */
+    private boolean tryAcquire(String redisKey, String fingerprint) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(redisKey, PENDING_MARKER + SEPARATOR + fingerprint, lease);
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for idempotency key {}, continuing without cross-node dedupe: {}",
+                    redisKey, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Wait for another node to finish the request holding this key
+     */
+    private String awaitRemote(String redisKey, String fingerprint) {
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (true) {
+            String stored = redisTemplate.opsForValue().get(redisKey);
+            if (stored == null) {
+                // Holder failed and released the key; claim it ourselves on the next attempt
+                throw new BusinessException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+            }
+            String[] parts = stored.split("\\" + SEPARATOR, 3);
+            checkFingerprint(parts[1], fingerprint);
+            if (DONE_MARKER.equals(parts[0])) {
+                return parts[2];
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new BusinessException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+            }
+        }
+    }
+
+    /**
+     * Record the result, replacing the lease with the full ttl
+     */
+    private void store(String redisKey, String fingerprint, String result) {
+        try {
+            redisTemplate.opsForValue().set(redisKey,
+                    DONE_MARKER + SEPARATOR + fingerprint + SEPARATOR + result, ttl);
+        } catch (DataAccessException e) {
+            log.warn("Could not record idempotency result for {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private void release(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (DataAccessException e) {
+            log.warn("Could not release idempotency key {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private void remember(String cacheKey, String fingerprint, String result) {
+        if (completed.size() >= MAX_LOCAL_ENTRIES) {
+            completed.values().removeIf(Completed::isExpired);
+            if (completed.size() >= MAX_LOCAL_ENTRIES) {
+                completed.clear();
+            }
+        }
+        completed.put(cacheKey, new Completed(fingerprint, result, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    private String await(CompletableFuture<String> result) {
+        try {
+            return result.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BusinessException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS);
+        }
+    }
+
+    private String replay(String storedFingerprint, String result, String fingerprint) {
+        checkFingerprint(storedFingerprint, fingerprint);
+        return result;
+    }
+
+    private void checkFingerprint(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new BusinessException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<String> result) {
+        InFlight(String fingerprint) {
+            this(fingerprint, new CompletableFuture<>());
+        }
+    }
+
+    private record Completed(String fingerprint, String result, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
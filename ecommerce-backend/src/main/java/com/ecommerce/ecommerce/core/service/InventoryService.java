@@ -71,19 +71,10 @@ public class InventoryService {
     }
 
     /**
-     * Check if product is in stock
+     * Check if product is in stock (served from the availability rollup, no variant scan)
      */
     public boolean isProductInStock(Product product) {
-        // Check if product has variants
-        List<ProductVariant> variants = productVariantService.getVariantsByProduct(product.getId());
-
-        if (variants.isEmpty()) {
-            // Product without variants - check product stock
-            return product.getStockQuantity() != null && product.getStockQuantity() > 0;
-        } else {
-            // Product with variants - check if any variant is in stock
-            return variants.stream().anyMatch(ProductVariant::isInStock);
-        }
+        return product.isInStock();
     }
 
     /**
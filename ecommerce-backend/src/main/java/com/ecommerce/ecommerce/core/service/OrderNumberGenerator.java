@@ -0,0 +1,98 @@
+package com.ecommerce.ecommerce.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator for unique order numbers.
+ * Ids are packed as [41 bits millis since epoch | 10 bits node id | 12 bits sequence],
+ * so numbers are unique across nodes without a database round trip and sort by creation time.
+ */
+@Component
+@Slf4j
+public class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+
+    /** 2024-01-01T00:00:00Z, keeps the time component small for ~69 years */
+    private static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    /** Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with CAS only */
+    private final AtomicLong state = new AtomicLong();
+
+    public OrderNumberGenerator(@Value("${app.order.node-id:-1}") long configuredNodeId, Environment environment) {
+        if (configuredNodeId < 0 && !environment.acceptsProfiles(Profiles.of("dev"))) {
+            // Two nodes sharing an id would issue the same order numbers
+            throw new IllegalStateException("app.order.node-id must be set to a value unique per instance");
+        }
+        this.nodeId = configuredNodeId >= 0 ? configuredNodeId : deriveNodeId();
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.order.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        log.info("Order number generator initialised with node id {}", nodeId);
+    }
+
+    /**
+     * Generate the next order number, e.g. "ORD-1A2B3C4D5E6F"
+     */
+    public String nextOrderNumber() {
+        return PREFIX + Long.toString(nextId(), 36).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Generate the next raw id.
+     * When the 4096 ids of a millisecond are used up (or the clock moves backwards)
+     * the logical clock is advanced instead of waiting, so callers never block.
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                long sequence = (current & SEQUENCE_MASK) + 1;
+                next = sequence > SEQUENCE_MASK
+                        ? (lastTimestamp + 1) << SEQUENCE_BITS
+                        : (lastTimestamp << SEQUENCE_BITS) | sequence;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Fallback node id from the host name, for a single dev instance only: a 10-bit hash can collide
+     */
+    private static long deriveNodeId() {
+        try {
+            String hostName = InetAddress.getLocalHost().getHostName();
+            return (hostName.hashCode() & Integer.MAX_VALUE) % (MAX_NODE_ID + 1);
+        } catch (Exception e) {
+            log.warn("Could not resolve host name for order node id, using 0: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
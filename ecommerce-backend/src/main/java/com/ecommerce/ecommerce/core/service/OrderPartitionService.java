@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Service class keeping monthly partitions of orders / order_items created ahead of time,
+ * so inserts never fall into the default partition.
+ */
+@Service
+@Slf4j
+public class OrderPartitionService {
+
+    private final OrderRepository orderRepository;
+    private final int monthsAhead;
+
+    public OrderPartitionService(OrderRepository orderRepository,
+                                 @Value("${app.order.partition-months-ahead:3}") int monthsAhead) {
+        this.orderRepository = orderRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Ensure partitions exist for the current month and the configured number of months ahead
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.order.partition-cron:0 0 2 * * *}")
+    @Transactional
+    public void ensureFuturePartitions() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        Integer created = orderRepository.createPartitions(currentMonth, monthsAhead + 1);
+        if (created != null && created > 0) {
+            log.info("Created {} order partitions starting {}", created, currentMonth);
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package com.ecommerce.ecommerce.core.service;
 
+import com.ecommerce.ecommerce.api.dto.cart.CartPricingResponse;
+import com.ecommerce.ecommerce.api.dto.cart.PricedCartLine;
+import com.ecommerce.ecommerce.api.dto.common.CursorPageResponse;
+import com.ecommerce.ecommerce.api.dto.order.CreateOrderRequest;
+import com.ecommerce.ecommerce.api.dto.order.OrderItemRequest;
+import com.ecommerce.ecommerce.api.dto.order.OrderSummaryResponse;
+import com.ecommerce.ecommerce.api.mapper.DtoMapper;
 import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.entity.OrderItem;
 import com.ecommerce.ecommerce.core.domain.entity.User;
+import com.ecommerce.ecommerce.core.domain.projection.OrderStatusBreakdown;
+import com.ecommerce.ecommerce.core.domain.projection.OrderSummary;
+import com.ecommerce.ecommerce.core.event.OrderEventType;
+import com.ecommerce.ecommerce.core.exception.BusinessException;
+import com.ecommerce.ecommerce.core.exception.ErrorCode;
 import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import com.ecommerce.ecommerce.core.repository.ProductVariantRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,7 +49,19 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OutboxService outboxService;
+    private final DailySalesService dailySalesService;
+    private final OrderStatusCounter orderStatusCounter;
+    private final BusinessTimeSeries businessTimeSeries;
+    private final UniqueCounterService uniqueCounterService;
+    private final CartPricingService cartPricingService;
+    private final DtoMapper dtoMapper;
 
     /**
      * Create a new order
@@ -35,17 +71,84 @@ public class OrderService {
         log.info("Creating order for user: {}", order.getUser().getId());
 
         // Generate order number
-        String orderNumber = generateOrderNumber();
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
         order.setOrderNumber(orderNumber);
         order.setStatus(Order.OrderStatus.PENDING);
         order.setPaymentStatus(Order.PaymentStatus.PENDING);
 
         Order savedOrder = orderRepository.save(order);
+        orderStatusCounter.recordTransition(null, savedOrder.getStatus());
+        businessTimeSeries.recordAfterCommit(BusinessTimeSeries.Metric.ORDERS);
+        businessTimeSeries.recordAfterCommit(BusinessTimeSeries.Metric.REVENUE, savedOrder.getTotalAmount());
+        uniqueCounterService.recordAfterCommit(UniqueCounterService.Metric.BUYERS, savedOrder.getUser().getId().toString());
+        publishEvent(savedOrder, OrderEventType.ORDER_CREATED, null);
         log.info("Order created successfully: {}", savedOrder.getOrderNumber());
 
         return savedOrder;
     }
 
+    /**
+     * Place an order for a user from a checkout request, pricing items from the catalog.
+     * Items are repriced and validated by the cart pricing engine with one catalog query; an unavailable
+     * product or variant, or a quantity beyond stock, rejects the order.
+     */
+    @Transactional
+    public Order placeOrder(CreateOrderRequest request, User user) {
+        Order order = dtoMapper.createOrderFromRequest(request, user);
+
+        List<OrderItemRequest> items = request.getItems();
+        List<CartPricingService.Line> lines = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            lines.add(CartPricingService.Line.of(Integer.toString(i), items.get(i)));
+        }
+        CartPricingResponse pricing = cartPricingService.priceLines(lines);
+
+        List<OrderItem> orderItems = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            OrderItemRequest itemRequest = items.get(i);
+            PricedCartLine line = pricing.getLines().get(i);
+            if (!line.isPurchasable()) {
+                throw rejection(line);
+            }
+
+            OrderItem orderItem = dtoMapper.toOrderItemEntity(itemRequest, line);
+            orderItem.setProduct(productRepository.getReferenceById(itemRequest.getProductId()));
+            if (itemRequest.getProductVariantId() != null) {
+                orderItem.setProductVariant(productVariantRepository.getReferenceById(itemRequest.getProductVariantId()));
+            }
+            orderItem.setOrder(order);
+            orderItems.add(orderItem);
+            subtotal = subtotal.add(orderItem.getTotalPrice());
+        }
+
+        order.setOrderItems(orderItems);
+        order.setSubtotal(subtotal);
+        order.setTaxAmount(BigDecimal.ZERO);
+        order.setShippingAmount(BigDecimal.ZERO);
+        order.setDiscountAmount(BigDecimal.ZERO);
+        order.setTotalAmount(subtotal);
+
+        return createOrder(order);
+    }
+
+    private static BusinessException rejection(PricedCartLine line) {
+        PricedCartLine.Adjustment reason = line.getAdjustments().stream()
+                .filter(adjustment -> adjustment != PricedCartLine.Adjustment.PRICE_CHANGED)
+                .findFirst()
+                .orElseThrow();
+        return switch (reason) {
+            case PRODUCT_UNAVAILABLE -> new BusinessException(ErrorCode.PRODUCT_NOT_ACTIVE,
+                    "Product " + line.getProductId() + " is not available");
+            case VARIANT_UNAVAILABLE -> new BusinessException(ErrorCode.PRODUCT_NOT_ACTIVE,
+                    "Product variant " + line.getVariantId() + " is not available");
+            case OUT_OF_STOCK -> new BusinessException(ErrorCode.PRODUCT_OUT_OF_STOCK,
+                    "Product " + line.getProductId() + " is out of stock");
+            default -> new BusinessException(ErrorCode.INSUFFICIENT_STOCK,
+                    "Only " + line.getAvailableQuantity() + " of product " + line.getProductId() + " available");
+        };
+    }
+
     /**
      * Get order by ID
      */
@@ -60,6 +163,36 @@ public class OrderService {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
 
+    /**
+     * Get a user's order history as summary rows using keyset pagination.
+     * Pass the previous page's nextCursor to continue; null starts from the newest order.
+     */
+    public CursorPageResponse<OrderSummaryResponse> getOrderHistory(Long userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, size + 1);
+
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findOrderSummariesByUser(userId, pageable);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = orderRepository.findOrderSummariesByUserAfter(userId,
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), pageable);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<OrderSummary> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        return CursorPageResponse.<OrderSummaryResponse>builder()
+                .data(page.stream().map(dtoMapper::toOrderSummaryResponseDTO).toList())
+                .size(page.size())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     /**
      * Get orders by status
      */
@@ -93,6 +226,9 @@ public class OrderService {
         }
 
         Order savedOrder = orderRepository.save(order);
+        orderStatusCounter.recordTransition(oldStatus, newStatus);
+        publishEvent(savedOrder, newStatus == Order.OrderStatus.CANCELLED
+                ? OrderEventType.ORDER_CANCELLED : OrderEventType.ORDER_STATUS_CHANGED, oldStatus);
         log.info("Order {} status updated: {} -> {}", orderId, oldStatus, newStatus);
 
         return savedOrder;
@@ -110,8 +246,11 @@ public class OrderService {
             throw new RuntimeException("Order cannot be cancelled in current status");
         }
 
+        Order.OrderStatus oldStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         Order savedOrder = orderRepository.save(order);
+        orderStatusCounter.recordTransition(oldStatus, Order.OrderStatus.CANCELLED);
+        publishEvent(savedOrder, OrderEventType.ORDER_CANCELLED, oldStatus);
 
         log.info("Order cancelled: {}", orderId);
         return savedOrder;
@@ -121,26 +260,36 @@ public class OrderService {
      * Get order statistics
      */
     public OrderStats getOrderStats() {
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-        long completedOrders = orderRepository.countByStatus(Order.OrderStatus.DELIVERED);
-        long cancelledOrders = orderRepository.countByStatus(Order.OrderStatus.CANCELLED);
+        OrderStatusBreakdown breakdown = getStatusBreakdown();
 
         return OrderStats.builder()
-                .totalOrders(totalOrders)
-                .pendingOrders(pendingOrders)
-                .completedOrders(completedOrders)
-                .cancelledOrders(cancelledOrders)
+                .totalOrders(breakdown.getTotal())
+                .pendingOrders(breakdown.count(Order.OrderStatus.PENDING))
+                .completedOrders(breakdown.count(Order.OrderStatus.DELIVERED))
+                .cancelledOrders(breakdown.count(Order.OrderStatus.CANCELLED))
                 .build();
     }
 
+    /**
+     * Order counts for every status: from the in-memory counter when enabled, otherwise one GROUP BY query
+     */
+    public OrderStatusBreakdown getStatusBreakdown() {
+        return orderStatusCounter.snapshot()
+                .orElseGet(() -> OrderStatusBreakdown.fromRows(orderRepository.countGroupedByStatus()));
+    }
+
     /**
      * Get sales analytics for date range
      */
     public SalesAnalytics getSalesAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal totalSales = orderRepository.getTotalSalesAmount(startDate, endDate);
-        List<Object[]> orderStats = orderRepository.getOrderStatsByStatus(startDate);
-        List<Object[]> monthlyData = orderRepository.getMonthlySalesData(startDate);
+        // Served from the daily_sales rollup at day granularity: a partial end day counts as a whole day
+        LocalDate fromDate = startDate.toLocalDate();
+        LocalDate toDate = endDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? endDate.toLocalDate() : endDate.toLocalDate().plusDays(1);
+
+        BigDecimal totalSales = dailySalesService.getTotals(fromDate, toDate).getRevenue();
+        OrderStatusBreakdown orderStats = dailySalesService.getStatusBreakdown(fromDate, toDate);
+        List<Object[]> monthlyData = dailySalesService.getMonthlySales(fromDate);
 
         return SalesAnalytics.builder()
                 .totalSales(totalSales != null ? totalSales : BigDecimal.ZERO)
@@ -158,22 +307,36 @@ public class OrderService {
     }
 
     /**
-     * Generate unique order number
+     * Record an order lifecycle event in the outbox; handlers run after commit, off the request path
      */
-    private String generateOrderNumber() {
-        LocalDateTime now = LocalDateTime.now();
-        String prefix = "ORD";
-        String timestamp = String.format("%04d%02d%02d%02d%02d",
-                now.getYear() % 10000,
-                now.getMonthValue(),
-                now.getDayOfMonth(),
-                now.getHour(),
-                now.getMinute());
-
-        // Add random suffix to ensure uniqueness
-        String suffix = String.format("%04d", (int) (Math.random() * 10000));
-
-        return prefix + "-" + timestamp + suffix;
+    private void publishEvent(Order order, OrderEventType eventType, Order.OrderStatus previousStatus) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus().name());
+        payload.put("previousStatus", previousStatus != null ? previousStatus.name() : null);
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("totalItems", order.getTotalItems());
+        payload.put("currency", order.getCurrency());
+        payload.put("createdAt", order.getCreatedAt());
+        outboxService.publish(OutboxService.AGGREGATE_ORDER, order.getId(), eventType.name(), payload);
+    }
+
+    private String encodeCursor(OrderSummary last) {
+        String position = last.getCreatedAt() + "_" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException(ErrorCode.VALIDATION_FAILED, "Invalid order history cursor");
+        }
     }
 
     /**
@@ -233,7 +396,7 @@ public class OrderService {
      */
     public static class SalesAnalytics {
         private BigDecimal totalSales;
-        private List<Object[]> orderStats;
+        private OrderStatusBreakdown orderStats;
         private List<Object[]> monthlyData;
 
         public static SalesAnalyticsBuilder builder() {
@@ -243,8 +406,8 @@ public class OrderService {
         // Getters and setters
         public BigDecimal getTotalSales() { return totalSales; }
         public void setTotalSales(BigDecimal totalSales) { this.totalSales = totalSales; }
-        public List<Object[]> getOrderStats() { return orderStats; }
-        public void setOrderStats(List<Object[]> orderStats) { this.orderStats = orderStats; }
+        public OrderStatusBreakdown getOrderStats() { return orderStats; }
+        public void setOrderStats(OrderStatusBreakdown orderStats) { this.orderStats = orderStats; }
         public List<Object[]> getMonthlyData() { return monthlyData; }
         public void setMonthlyData(List<Object[]> monthlyData) { this.monthlyData = monthlyData; }
 
@@ -256,7 +419,7 @@ public class OrderService {
                 return this;
             }
 
-            public SalesAnalyticsBuilder orderStats(List<Object[]> orderStats) {
+            public SalesAnalyticsBuilder orderStats(OrderStatusBreakdown orderStats) {
                 salesAnalytics.orderStats = orderStats;
                 return this;
             }
@@ -0,0 +1,92 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.domain.entity.Order;
+import com.ecommerce.ecommerce.core.domain.projection.OrderStatusBreakdown;
+import com.ecommerce.ecommerce.core.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional in-memory order status counters (app.order.status-counter.enabled).
+ * Seeded from the database, moved by status transitions committed on this node and
+ * periodically re-synced so transitions made on other nodes are picked up.
+ */
+@Component
+@Slf4j
+public class OrderStatusCounter {
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final Map<Order.OrderStatus, AtomicLong> counters = new EnumMap<>(Order.OrderStatus.class);
+    private volatile boolean initialized;
+
+    public OrderStatusCounter(OrderRepository orderRepository,
+                              @Value("${app.order.status-counter.enabled:false}") boolean enabled) {
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counters.put(status, new AtomicLong());
+        }
+    }
+
+    /**
+     * Current counts, or empty when the counter is disabled or not yet seeded
+     */
+    public Optional<OrderStatusBreakdown> snapshot() {
+        if (!enabled || !initialized) {
+            return Optional.empty();
+        }
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        counters.forEach((status, counter) -> counts.put(status, counter.get()));
+        return Optional.of(new OrderStatusBreakdown(counts));
+    }
+
+    /**
+     * Apply a transition once the surrounding transaction commits; from is null for a new order
+     */
+    public void recordTransition(Order.OrderStatus from, Order.OrderStatus to) {
+        if (!enabled || from == to) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(from, to);
+                }
+            });
+        } else {
+            apply(from, to);
+        }
+    }
+
+    /**
+     * Reload all counters with one GROUP BY pass
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.order.status-counter.resync-ms:60000}")
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        OrderStatusBreakdown breakdown = OrderStatusBreakdown.fromRows(orderRepository.countGroupedByStatus());
+        breakdown.getCounts().forEach((status, count) -> counters.get(status).set(count));
+        initialized = true;
+        log.debug("Order status counters re-synced: {}", breakdown);
+    }
+
+    private void apply(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from != null) {
+            counters.get(from).decrementAndGet();
+        }
+        counters.get(to).incrementAndGet();
+    }
+}
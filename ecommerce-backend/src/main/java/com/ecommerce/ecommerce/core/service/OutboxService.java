@@ -0,0 +1,73 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.domain.entity.OutboxEvent;
+import com.ecommerce.ecommerce.core.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for writing events to the transactional outbox.
+ * Events only become visible to the dispatcher if the surrounding transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class OutboxService {
+
+    public static final String AGGREGATE_ORDER = "ORDER";
+    public static final String AGGREGATE_CART = "CART";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Record an event in the caller's transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publish(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(writePayload(payload))
+                .build();
+        OutboxEvent savedEvent = outboxEventRepository.save(event);
+        log.debug("Outbox event recorded: {} for {} {}", eventType, aggregateType, aggregateId);
+        return savedEvent;
+    }
+
+    /**
+     * Record one event per aggregate in the caller's transaction, inserted as a JDBC batch
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxEvent> publishAll(String aggregateType, String eventType, Map<Long, Map<String, Object>> payloads) {
+        List<OutboxEvent> events = new ArrayList<>(payloads.size());
+        payloads.forEach((aggregateId, payload) -> events.add(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(writePayload(payload))
+                .build()));
+        List<OutboxEvent> savedEvents = outboxEventRepository.saveAll(events);
+        log.debug("Outbox events recorded: {} x {} for {}", savedEvents.size(), eventType, aggregateType);
+        return savedEvents;
+    }
+
+    private String writePayload(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
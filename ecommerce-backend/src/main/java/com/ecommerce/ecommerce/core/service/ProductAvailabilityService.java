@@ -0,0 +1,81 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.dashboard.DashboardEventDTO;
+import com.ecommerce.ecommerce.core.domain.entity.Product;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for the denormalized product availability rollup.
+ * Keeps products.available_stock / products.in_stock in step with variant stock so that
+ * listings can filter and sort on a single indexed column.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ProductAvailabilityService {
+
+    private final ProductRepository productRepository;
+    private final DashboardStreamService dashboardStreamService;
+    private final EntityManager entityManager;
+
+    /**
+     * Recompute the rollup for a product inside the caller's transaction.
+     * The product row is locked first so concurrent variant updates are applied one after another.
+     * The update bypasses the persistence context, so a product the caller already loaded is refreshed
+     * to see the new rollup.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        int previousStock = productRepository.lockForAvailabilityUpdate(productId).orElse(0);
+        productRepository.refreshAvailability(productId);
+        Product product = entityManager.getReference(Product.class, productId);
+        if (Hibernate.isInitialized(product)) {
+            entityManager.refresh(product);
+        }
+
+        int availableStock = getAvailableStock(productId);
+        if (availableStock != previousStock) {
+            dashboardStreamService.publishAfterCommit(DashboardEventDTO.builder()
+                    .type(DashboardStreamService.STOCK_CHANGED)
+                    .productId(productId)
+                    .availableStock(availableStock)
+                    .inStock(availableStock > 0)
+                    .previouslyInStock(previousStock > 0)
+                    .build());
+        }
+    }
+
+    /**
+     * Get available stock for a product across all its active variants
+     */
+    public Integer getAvailableStock(Long productId) {
+        return productRepository.findAvailableStockById(productId).orElse(0);
+    }
+
+    /**
+     * Repair job fixing rollups that drifted (bulk imports, manual SQL, missed hooks)
+     */
+    @Scheduled(cron = "${app.inventory.availability-repair-cron:0 30 3 * * *}")
+    @Transactional
+    public int repairAll() {
+        int repaired = productRepository.repairAvailability();
+        if (repaired > 0) {
+            log.warn("Repaired availability rollup for {} products", repaired);
+        } else {
+            log.info("Availability rollup verified, no drift found");
+        }
+        return repaired;
+    }
+}
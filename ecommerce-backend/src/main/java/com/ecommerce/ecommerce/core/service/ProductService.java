@@ -13,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,7 @@ import java.util.Optional;
 public class ProductService{
 
     private final ProductRepository productRepository;
+    private final ProductAvailabilityService productAvailabilityService;
     private final DtoMapper dtoMapper;
 
     /**
@@ -45,6 +47,15 @@ public class ProductService{
                 .filter(Product::getIsActive);
     }
 
+    /**
+     * Get active products by IDs in one query
+     */
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids).stream()
+                .filter(Product::getIsActive)
+                .toList();
+    }
+
     /**
      * Search products by term
      */
@@ -116,6 +127,7 @@ public class ProductService{
         product.setIsFeatured(false);
 
         Product savedProduct = productRepository.save(product);
+        productAvailabilityService.refresh(savedProduct.getId());
         log.info("Product created: {}", savedProduct.getId());
         return savedProduct;
     }
@@ -130,6 +142,7 @@ public class ProductService{
 
         dtoMapper.updateProductFromRequest(request, product);
         Product savedProduct = productRepository.save(product);
+        productAvailabilityService.refresh(id);
         log.info("Product updated: {}", id);
         return savedProduct;
     }
@@ -144,6 +157,7 @@ public class ProductService{
 
         product.setStockQuantity(stockQuantity);
         Product savedProduct = productRepository.save(product);
+        productAvailabilityService.refresh(id);
         log.info("Product stock updated: {} -> {}", id, stockQuantity);
         return savedProduct;
     }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,7 @@ import java.util.Optional;
 public class ProductVariantService {
 
     private final ProductVariantRepository productVariantRepository;
+    private final ProductAvailabilityService productAvailabilityService;
 
     /**
      * Create a new product variant
@@ -55,6 +57,7 @@ public class ProductVariantService {
                 .build();
 
         ProductVariant savedVariant = productVariantRepository.save(variant);
+        productAvailabilityService.refresh(product.getId());
         log.info("Variant created: {}", savedVariant.getId());
 
         return savedVariant;
@@ -74,6 +77,13 @@ public class ProductVariantService {
         return productVariantRepository.findById(id);
     }
 
+    /**
+     * Get variants by IDs in one query
+     */
+    public List<ProductVariant> getVariantsByIds(Collection<Long> ids) {
+        return productVariantRepository.findAllById(ids);
+    }
+
     /**
      * Get active variant by ID
      */
@@ -105,6 +115,7 @@ public class ProductVariantService {
         variant.setStockQuantity(stockQuantity);
 
         ProductVariant savedVariant = productVariantRepository.save(variant);
+        productAvailabilityService.refresh(variant.getProduct().getId());
         log.info("Variant updated: {}", variantId);
 
         return savedVariant;
@@ -119,6 +130,7 @@ public class ProductVariantService {
 
         ProductVariant variant = productVariantRepository.findById(variantId)
                 .orElseThrow(() -> new RuntimeException("Variant not found"));
+        productAvailabilityService.refresh(variant.getProduct().getId());
 
         log.info("Variant stock updated: {} -> {}", variantId, stockQuantity);
         return variant;
@@ -134,6 +146,7 @@ public class ProductVariantService {
 
         variant.setIsActive(active);
         ProductVariant savedVariant = productVariantRepository.save(variant);
+        productAvailabilityService.refresh(variant.getProduct().getId());
 
         log.info("Variant {} active status: {}", variantId, active);
         return savedVariant;
@@ -163,6 +176,7 @@ public class ProductVariantService {
 
         variant.setIsActive(false);
         productVariantRepository.save(variant);
+        productAvailabilityService.refresh(variant.getProduct().getId());
 
         log.info("Variant deleted: {}", variantId);
     }
@@ -231,11 +245,10 @@ public class ProductVariantService {
     }
 
     /**
-     * Get total stock for a product across all variants
+     * Get total stock for a product across all variants (read from the product availability rollup)
      */
     public Integer getTotalStockForProduct(Long productId) {
-        Integer totalStock = productVariantRepository.getTotalStockByProduct(productId);
-        return totalStock != null ? totalStock : 0;
+        return productAvailabilityService.getAvailableStock(productId);
     }
 
     /**
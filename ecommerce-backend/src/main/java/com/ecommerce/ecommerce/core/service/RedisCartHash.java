@@ -0,0 +1,136 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.api.dto.cart.CartItemResponse;
+import com.ecommerce.ecommerce.api.dto.cart.CartResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Layout of a cart kept as one Redis hash, shared by hot user carts and guest carts.
+ * Per line an item snapshot ("i:&lt;line&gt;", JSON) and a quantity ("q:&lt;line&gt;", so adds are an
+ * atomic HINCRBY); any other field is bookkeeping owned by the store.
+ */
+final class RedisCartHash {
+
+    static final String MARKER = "#";
+    static final String ITEM = "i:";
+    static final String QUANTITY = "q:";
+
+    private static final String CURRENCY = "JPY";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    RedisCartHash(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+
+    /**
+     * Line fields for a set of lines, each with its quantity
+     */
+    Map<String, String> fields(List<CartItemResponse> lines) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (CartItemResponse line : lines) {
+            fields.put(ITEM + line.getId(), write(line));
+            fields.put(QUANTITY + line.getId(), line.getQuantity().toString());
+        }
+        return fields;
+    }
+
+    /**
+     * The cart held in a hash, newest line first
+     */
+    CartResponse toCart(Map<String, String> fields) {
+        return toCart(lines(fields));
+    }
+
+    /**
+     * A cart of the given lines, newest line first
+     */
+    CartResponse toCart(List<CartItemResponse> items) {
+        items.sort(Comparator.comparing(CartItemResponse::getAddedAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+
+        int totalItems = 0;
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (CartItemResponse item : items) {
+            totalItems += item.getQuantity();
+            totalPrice = totalPrice.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return CartResponse.builder()
+                .items(items)
+                .totalItems(totalItems)
+                .totalPrice(totalPrice)
+                .currency(CURRENCY)
+                .build();
+    }
+
+    /**
+     * Lines of a cart hash; a snapshot without a positive quantity (left by a racing removal) is skipped
+     */
+    List<CartItemResponse> lines(Map<String, String> fields) {
+        List<CartItemResponse> lines = new ArrayList<>();
+        fields.forEach((field, value) -> {
+            if (!field.startsWith(ITEM)) {
+                return;
+            }
+            String quantity = fields.get(QUANTITY + field.substring(ITEM.length()));
+            if (quantity != null && Integer.parseInt(quantity) > 0) {
+                CartItemResponse line = read(value);
+                line.setQuantity(Integer.parseInt(quantity));
+                lines.add(line);
+            }
+        });
+        return lines;
+    }
+
+    /**
+     * Run commands in one MULTI/EXEC block, returning their results
+     */
+    List<Object> transaction(Consumer<RedisOperations<String, String>> commands) {
+        return redisTemplate.execute(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                stringOperations.multi();
+                commands.accept(stringOperations);
+                return stringOperations.exec();
+            }
+        });
+    }
+
+    String write(CartItemResponse line) {
+        try {
+            // The stored quantity is ignored on read; the "q:" field is authoritative
+            return objectMapper.writeValueAsString(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cart line " + line.getId(), e);
+        }
+    }
+
+    CartItemResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, CartItemResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read cart line", e);
+        }
+    }
+}
@@ -1,24 +1,199 @@
 package com.ecommerce.ecommerce.core.service;
 
+import com.ecommerce.ecommerce.util.BloomFilter;
+import com.ecommerce.ecommerce.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Revoked (logged out) tokens, kept in Redis under their SHA-256 until they would have expired.
+ * Each node holds a local Bloom filter of revoked token hashes, so the check made on every authenticated
+ * request only reaches Redis when the filter reports a possible match. The filter is rebuilt from Redis
+ * at startup and periodically, shedding expired revocations; new revocations reach every node over
+ * Redis pub/sub. Until a filter has been built, every check goes to Redis. Revocations published while
+ * this node was not subscribed are missed, so whenever the subscription is (re)established the filter is
+ * dropped and rebuilt, and checks go to Redis meanwhile.
+ */
 @Service
-public class TokenBlacklistService {
+@Slf4j
+public class TokenBlacklistService implements MessageListener, SubscriptionListener {
+
+    public static final String CHANNEL = "tokens:revoked";
+
+    private static final String KEY_PREFIX = "blacklist:";
+    /** Keys written before revocations were hashed: the raw JWT, whose header always encodes to "eyJ" */
+    private static final String LEGACY_KEY_PATTERN = "eyJ*";
+    private static final int SCAN_BATCH = 1000;
+    private static final String BLACKLISTED = "blacklisted";
 
     private final StringRedisTemplate redisTemplate;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    /** Filter in use, null until the first build succeeds */
+    private volatile BloomFilter filter;
+    /** Filter being rebuilt, which also receives revocations made while Redis is scanned */
+    private volatile BloomFilter rebuilding;
+    /** Bumped whenever the subscription changes, so a rebuild that started before it is not used */
+    private long subscriptionGeneration;
+    private final Object subscriptionLock = new Object();
+    private boolean legacyKeysMigrated;
 
-    public TokenBlacklistService(StringRedisTemplate redisTemplate) {
+    public TokenBlacklistService(StringRedisTemplate redisTemplate,
+                                 @Value("${app.security.blacklist.expected-entries:100000}") int expectedEntries,
+                                 @Value("${app.security.blacklist.false-positive-rate:0.01}") double falsePositiveRate) {
         this.redisTemplate = redisTemplate;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
     }
 
     public void blacklistToken(String token, long expirationTime) {
-        redisTemplate.opsForValue().set(token, "blacklisted", expirationTime, TimeUnit.MILLISECONDS);
+        byte[] digest = JwtUtil.tokenDigest(token);
+        String hash = HexFormat.of().formatHex(digest);
+        redisTemplate.opsForValue().set(KEY_PREFIX + hash, BLACKLISTED, expirationTime, TimeUnit.MILLISECONDS);
+        remember(digest);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, hash);
+        } catch (DataAccessException e) {
+            log.warn("Could not publish token revocation, other nodes pick it up on their next rebuild: {}", e.getMessage());
+        }
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return redisTemplate.hasKey(token);
+        byte[] digest = JwtUtil.tokenDigest(token);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(digest)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + HexFormat.of().formatHex(digest)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            remember(HexFormat.of().parseHex(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed token revocation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        log.info("Subscribed to token revocations, rebuilding the blacklist filter");
+        dropFilter();
+        // Off the listener container's thread, which would otherwise wait for the scan
+        Thread.ofVirtual().name("token-blacklist-rebuild").start(this::rebuild);
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        log.warn("Unsubscribed from token revocations, checking Redis on every request");
+        dropFilter();
+    }
+
+    /**
+     * Build a fresh filter from the revocations in Redis and swap it in
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.security.blacklist.rebuild-ms:600000}")
+    public synchronized void rebuild() {
+        long generation;
+        synchronized (subscriptionLock) {
+            generation = subscriptionGeneration;
+        }
+        BloomFilter next = new BloomFilter(expectedEntries, falsePositiveRate);
+        rebuilding = next;
+        try {
+            if (!legacyKeysMigrated) {
+                migrateLegacyKeys();
+                legacyKeysMigrated = true;
+            }
+            int count = 0;
+            try (Cursor<String> keys = scan(KEY_PREFIX + "*")) {
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    try {
+                        next.add(HexFormat.of().parseHex(key, KEY_PREFIX.length(), key.length()));
+                        count++;
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Ignoring malformed token revocation key {}", key);
+                    }
+                }
+            }
+            // Published before rebuilding is cleared, so no revocation misses both filters
+            synchronized (subscriptionLock) {
+                if (generation != subscriptionGeneration) {
+                    // The subscription changed during the scan; the rebuild it triggered publishes instead
+                    return;
+                }
+                filter = next;
+            }
+            log.debug("Token blacklist filter rebuilt with {} revocations", count);
+        } catch (DataAccessException e) {
+            log.warn("Could not rebuild token blacklist filter, {}: {}",
+                    filter == null ? "checking Redis on every request" : "keeping the previous one", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void dropFilter() {
+        synchronized (subscriptionLock) {
+            subscriptionGeneration++;
+            filter = null;
+        }
+    }
+
+    private void remember(byte[] digest) {
+        // Read the rebuild first: once it is cleared, the rebuilt filter is already in use
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(digest);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(digest);
+        }
+    }
+
+    /**
+     * Move revocations stored under the raw token to hashed keys, keeping their remaining lifetime
+     */
+    private void migrateLegacyKeys() {
+        int migrated = 0;
+        try (Cursor<String> keys = scan(LEGACY_KEY_PATTERN)) {
+            while (keys.hasNext()) {
+                String token = keys.next();
+                if (!BLACKLISTED.equals(redisTemplate.opsForValue().get(token))) {
+                    continue;
+                }
+                Long ttl = redisTemplate.getExpire(token, TimeUnit.MILLISECONDS);
+                if (ttl != null && ttl > 0) {
+                    redisTemplate.opsForValue().set(KEY_PREFIX + HexFormat.of().formatHex(JwtUtil.tokenDigest(token)),
+                            BLACKLISTED, ttl, TimeUnit.MILLISECONDS);
+                }
+                redisTemplate.delete(token);
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} token revocations to hashed keys", migrated);
+        }
+    }
+
+    private Cursor<String> scan(String pattern) {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH).build());
     }
 }
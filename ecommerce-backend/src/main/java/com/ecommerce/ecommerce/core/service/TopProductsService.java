@@ -0,0 +1,200 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.core.domain.projection.TopSellingProduct;
+import com.ecommerce.ecommerce.core.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for the cached top-selling products list.
+ * Loads a window of the best sellers (larger than the list shown) with one aggregate query and
+ * applies sales deltas from order events to it. The window is reloaded only when a product outside
+ * it could have overtaken the last shown entry, or on a fixed interval to pick up rating and
+ * catalog changes and to correct drift from events handled on other nodes. Deltas are applied once the
+ * handling transaction commits and at most once per outbox event, so retried deliveries do not count twice.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class TopProductsService {
+
+    private static final int MAX_APPLIED_EVENTS = 10_000;
+
+    private final ProductRepository productRepository;
+    private final int size;
+    private final int window;
+
+    /** Products in the loaded window, by id, ranked on read */
+    private final Map<Long, Entry> candidates = new HashMap<>();
+
+    /** Units sold since the last load for products outside the window */
+    private final Map<Long, Long> outsideDeltas = new HashMap<>();
+
+    /** Units sold of the last window entry at load time; anything outside had at most this many */
+    private long outsideCeiling;
+    private boolean stale = true;
+
+    /** Ids of recently applied outbox events, oldest first */
+    private final Set<Long> appliedEvents = new LinkedHashSet<>();
+
+    public TopProductsService(ProductRepository productRepository,
+                              @Value("${app.dashboard.top-products.size:10}") int size,
+                              @Value("${app.dashboard.top-products.window:50}") int window) {
+        this.productRepository = productRepository;
+        this.size = size;
+        this.window = Math.max(window, size);
+    }
+
+    /**
+     * Current top products, best seller first
+     */
+    public synchronized List<TopSellingProduct> getTopProducts() {
+        if (stale || outsiderMayRank()) {
+            reload();
+        }
+        return candidates.values().stream()
+                .sorted(Comparator.comparingLong(Entry::getUnitsSold).reversed()
+                        .thenComparing(Entry::getProductId))
+                .limit(size)
+                .<TopSellingProduct>map(Entry::copy)
+                .toList();
+    }
+
+    /**
+     * Apply an event's sold (positive) or returned (negative) quantities and revenue per product once the
+     * surrounding transaction commits, or right away outside a transaction
+     */
+    public void recordSalesAfterCommit(Long eventId, Map<Long, Long> units, Map<Long, BigDecimal> revenue) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordSales(eventId, units, revenue);
+                }
+            });
+        } else {
+            recordSales(eventId, units, revenue);
+        }
+    }
+
+    /**
+     * Apply an event's quantities and revenue per product, ignoring an event already applied
+     */
+    public synchronized void recordSales(Long eventId, Map<Long, Long> units, Map<Long, BigDecimal> revenue) {
+        if (!appliedEvents.add(eventId)) {
+            return;
+        }
+        if (appliedEvents.size() > MAX_APPLIED_EVENTS) {
+            Iterator<Long> oldest = appliedEvents.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        if (stale) {
+            return;
+        }
+        units.forEach((productId, quantity) -> {
+            Entry entry = candidates.get(productId);
+            if (entry != null) {
+                entry.unitsSold += quantity;
+                entry.revenue = entry.revenue.add(revenue.getOrDefault(productId, BigDecimal.ZERO));
+            } else {
+                outsideDeltas.merge(productId, quantity, Long::sum);
+            }
+        });
+    }
+
+    /**
+     * Drop the cached window so the next read reloads it
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.top-products.refresh-ms:300000}")
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Whether a product outside the window may now sell more than the last shown entry
+     */
+    private boolean outsiderMayRank() {
+        if (outsideDeltas.isEmpty()) {
+            return false;
+        }
+        long largestGain = outsideDeltas.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        long lastShown = candidates.values().stream()
+                .mapToLong(Entry::getUnitsSold)
+                .boxed()
+                .sorted(Comparator.reverseOrder())
+                .skip(Math.max(0, Math.min(size, candidates.size()) - 1))
+                .findFirst()
+                .orElse(0L);
+        return candidates.size() < size || outsideCeiling + largestGain > lastShown;
+    }
+
+    private void reload() {
+        List<TopSellingProduct> rows = productRepository.findTopSellingProducts(window);
+        candidates.clear();
+        outsideDeltas.clear();
+        rows.forEach(row -> candidates.put(row.getProductId(), new Entry(row)));
+        // A short window holds every product that has sold anything
+        outsideCeiling = rows.size() < window ? 0 : rows.get(rows.size() - 1).getUnitsSold();
+        stale = false;
+        log.debug("Loaded {} top product candidates", rows.size());
+    }
+
+    /**
+     * Window entry with sales kept current between loads
+     */
+    private static final class Entry implements TopSellingProduct {
+        private final TopSellingProduct row;
+        private long unitsSold;
+        private BigDecimal revenue;
+
+        private Entry(TopSellingProduct row) {
+            this(row, row.getUnitsSold(), row.getRevenue());
+        }
+
+        private Entry(TopSellingProduct row, long unitsSold, BigDecimal revenue) {
+            this.row = row;
+            this.unitsSold = unitsSold;
+            this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        }
+
+        private Entry copy() {
+            return new Entry(row, unitsSold, revenue);
+        }
+
+        @Override
+        public Long getProductId() { return row.getProductId(); }
+
+        @Override
+        public String getProductName() { return row.getProductName(); }
+
+        @Override
+        public String getCategoryName() { return row.getCategoryName(); }
+
+        @Override
+        public String getProductImage() { return row.getProductImage(); }
+
+        @Override
+        public Long getUnitsSold() { return unitsSold; }
+
+        @Override
+        public BigDecimal getRevenue() { return revenue; }
+
+        @Override
+        public BigDecimal getAverageRating() { return row.getAverageRating(); }
+    }
+}
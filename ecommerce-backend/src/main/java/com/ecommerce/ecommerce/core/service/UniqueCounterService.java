@@ -0,0 +1,126 @@
+package com.ecommerce.ecommerce.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Approximate distinct counters backed by Redis HyperLogLogs.
+ * Each metric keeps one sketch per day (about 12 KB at most, ~0.8% standard error); counts over
+ * several days are the union of the daily sketches, computed by Redis, so they merge across days
+ * and application nodes without storing any member. Members are buffered in memory and flushed
+ * in batches, keeping Redis off the request path of product views and searches.
+ */
+@Service
+@Slf4j
+public class UniqueCounterService {
+
+    private static final String KEY_PREFIX = "uniques:";
+    private static final int MAX_PENDING_MEMBERS = 100_000;
+
+    public enum Metric {
+        BUYERS, PRODUCT_VIEWERS, SEARCHERS
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration retention;
+
+    /** Members waiting to be flushed, by sketch key */
+    private final Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public UniqueCounterService(StringRedisTemplate redisTemplate,
+                                @Value("${app.analytics.uniques.retention:35d}") Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.retention = retention;
+    }
+
+    /**
+     * Count a member (user or visitor id) for today
+     */
+    public void record(Metric metric, String member) {
+        if (member == null || pendingCount.get() >= MAX_PENDING_MEMBERS) {
+            return;
+        }
+        // compute() is atomic with the remove() in flush, so no member lands in an already flushed set
+        pending.compute(key(metric, LocalDate.now()), (key, members) -> {
+            Set<String> target = members != null ? members : new HashSet<>();
+            if (target.add(member)) {
+                pendingCount.incrementAndGet();
+            }
+            return target;
+        });
+    }
+
+    /**
+     * Count a member for today once the surrounding transaction commits
+     */
+    public void recordAfterCommit(Metric metric, String member) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(metric, member);
+                }
+            });
+        } else {
+            record(metric, member);
+        }
+    }
+
+    /**
+     * Approximate number of distinct members from a day up to today, inclusive
+     */
+    public long countSince(Metric metric, LocalDate from) {
+        String[] keys = from.datesUntil(LocalDate.now().plusDays(1))
+                .map(day -> key(metric, day))
+                .toArray(String[]::new);
+        if (keys.length == 0) {
+            return 0;
+        }
+        try {
+            Long count = redisTemplate.opsForHyperLogLog().size(keys);
+            return count != null ? count : 0;
+        } catch (DataAccessException e) {
+            log.warn("Could not read unique counts for {}: {}", metric, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Push buffered members into the daily sketches
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.uniques.flush-ms:1000}")
+    public void flush() {
+        for (String key : Set.copyOf(pending.keySet())) {
+            Set<String> members = pending.remove(key);
+            if (members == null || members.isEmpty()) {
+                continue;
+            }
+            pendingCount.addAndGet(-members.size());
+            try {
+                redisTemplate.opsForHyperLogLog().add(key, members.toArray(String[]::new));
+                redisTemplate.expire(key, retention);
+            } catch (DataAccessException e) {
+                log.warn("Dropping {} unique members for {}: {}", members.size(), key, e.getMessage());
+            }
+        }
+    }
+
+    private static String key(Metric metric, LocalDate day) {
+        return KEY_PREFIX + metric.name().toLowerCase() + ":" + day;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.ecommerce.core.service;
+
+import com.ecommerce.ecommerce.util.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local cache of authenticated principals, keyed by the JWT subject, so authenticated requests do not
+ * load the user from the database every time. Entries live at most app.security.principal-cache.ttl.
+ * When a user's role, password, active status or profile changes, the user id is published on
+ * {@link #CHANNEL} after commit and every node drops that user's entries.
+ */
+@Service
+@Slf4j
+public class UserPrincipalCache implements MessageListener {
+
+    public static final String CHANNEL = "users:invalidated";
+
+    private final UserServiceProvider userServiceProvider;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    private final Map<String, Cached> principals = new ConcurrentHashMap<>();
+    /** Bumped on every eviction, so a load racing with an invalidation is not cached */
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Cached(UserPrincipal principal, long expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    public UserPrincipalCache(UserServiceProvider userServiceProvider,
+                              StringRedisTemplate redisTemplate,
+                              @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+                              @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userServiceProvider = userServiceProvider;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The principal for a username or email, loading it from the database on a miss
+     */
+    public UserDetails load(String username) {
+        Cached cached = principals.get(username);
+        if (cached != null && !cached.isExpired()) {
+            return cached.principal();
+        }
+        long loadedAt = generation.get();
+        UserDetails details = userServiceProvider.loadUserByUsername(username);
+        if (details instanceof UserPrincipal principal && generation.get() == loadedAt) {
+            remember(username, principal);
+        }
+        return details;
+    }
+
+    /**
+     * Drop a user's principals on every node once the current transaction commits, or right away
+     * outside a transaction
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        } else {
+            invalidate(userId);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        evict(userId.toString());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, userId.toString());
+        } catch (DataAccessException e) {
+            log.warn("Could not publish principal invalidation for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evict(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void evict(String userId) {
+        generation.incrementAndGet();
+        // A user may be cached under both username and email
+        principals.values().removeIf(cached -> userId.equals(cached.principal().getId()));
+    }
+
+    private void remember(String username, UserPrincipal principal) {
+        if (principals.size() >= maxEntries) {
+            principals.values().removeIf(Cached::isExpired);
+            if (principals.size() >= maxEntries) {
+                principals.clear();
+            }
+        }
+        principals.put(username, new Cached(principal, System.currentTimeMillis() + ttl.toMillis()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.ecommerce.core.service;
 
+import com.ecommerce.ecommerce.api.dto.dashboard.DashboardEventDTO;
 import com.ecommerce.ecommerce.api.dto.user.UpdateProfileRequest;
 import com.ecommerce.ecommerce.api.mapper.DtoMapper;
 import com.ecommerce.ecommerce.core.domain.entity.User;
@@ -33,6 +34,9 @@ public class UserService  {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationService authenticationService;
+    private final DashboardStreamService dashboardStreamService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final BusinessTimeSeries businessTimeSeries;
     private final DtoMapper dtoMapper;
 
     /**
@@ -53,7 +57,9 @@ public class UserService  {
         user.setIsVerified(true);
         user.setRole(User.Role.USER);
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userRegistered(savedUser);
+        return savedUser;
     }
     
     /**
@@ -64,7 +70,8 @@ public class UserService  {
         existingUser.setFirstName((String) attributes.get("given_name"));
         existingUser.setLastName((String) attributes.get("family_name"));
         existingUser.setAvatarUrl((String) attributes.get("picture"));
-        
+        userPrincipalCache.invalidateAfterCommit(existingUser.getId());
+
         return userRepository.save(existingUser);
     }
     
@@ -96,6 +103,7 @@ public class UserService  {
 
         User savedUser = userRepository.save(user);
         log.info("User registered successfully: {}", savedUser.getId());
+        userRegistered(savedUser);
 
         return savedUser;
     }
@@ -143,6 +151,7 @@ public class UserService  {
         }
 
         User savedUser = userRepository.save(user);
+        userPrincipalCache.invalidateAfterCommit(user.getId());
         log.info("Profile updated for user: {}", user.getId());
         return savedUser;
     }
@@ -159,6 +168,7 @@ public class UserService  {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userPrincipalCache.invalidateAfterCommit(user.getId());
 
         log.info("Password changed for user: {}", user.getId());
     }
@@ -173,6 +183,7 @@ public class UserService  {
         User user = getCurrentUser(authentication);
         user.setIsVerified(true);
         userRepository.save(user);
+        userPrincipalCache.invalidateAfterCommit(user.getId());
 
         log.info("Email verified for user: {}", user.getId());
     }
@@ -185,6 +196,7 @@ public class UserService  {
         User user = getCurrentUser(authentication);
         user.setIsActive(false);
         userRepository.save(user);
+        userPrincipalCache.invalidateAfterCommit(user.getId());
 
         log.info("Account deactivated: {}", user.getId());
     }
@@ -260,6 +272,7 @@ public class UserService  {
 
       User savedUser = userRepository.save(user);
       log.info("User registered successfully: {}", savedUser.getId());
+      userRegistered(savedUser);
 
       return savedUser;
   }
@@ -267,4 +280,15 @@ public class UserService  {
     public Optional<User> findByEmailOrUsername(String username) {
         return userRepository.findByEmailOrUsername(username,username);
     }
+
+    /**
+     * Count the signup and show it on the live dashboard; called by every path that creates a user
+     */
+    private void userRegistered(User user) {
+        businessTimeSeries.recordAfterCommit(BusinessTimeSeries.Metric.SIGNUPS);
+        dashboardStreamService.publishAfterCommit(DashboardEventDTO.builder()
+                .type(DashboardStreamService.USER_REGISTERED)
+                .userId(user.getId())
+                .build());
+    }
 }
@@ -150,6 +150,18 @@ public class EmailService {
         log.info("Review request email sent for order: {}", orderNumber);
     }
 
+    /**
+     * Send abandoned cart reminder email
+     */
+    public void sendAbandonedCartEmail(String to, String firstName, long itemCount) {
+        String subject = "You left something in your cart";
+
+        String htmlContent = buildAbandonedCartHtml(firstName, itemCount);
+
+        sendHtmlEmail(to, subject, htmlContent);
+        log.info("Abandoned cart email sent to: {}", to);
+    }
+
     /**
      * Build order confirmation HTML content
      */
@@ -411,6 +423,45 @@ public class EmailService {
             """.formatted(customerName, productName, frontendUrl + "/reviews/new?order=" + orderNumber);
     }
 
+    /**
+     * Build abandoned cart reminder HTML content
+     */
+    private String buildAbandonedCartHtml(String firstName, long itemCount) {
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <title>Your Cart Is Waiting</title>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
+                    .header { background-color: #4CAF50; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; background-color: #f9f9f9; }
+                    .button { display: inline-block; padding: 10px 20px; background-color: #4CAF50; color: white; text-decoration: none; border-radius: 5px; }
+                    .footer { text-align: center; padding: 20px; color: #666; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>Your Cart Is Waiting</h1>
+                    </div>
+                    <div class="content">
+                        <h2>Hello %s,</h2>
+                        <p>You still have <strong>%d item(s)</strong> in your cart.</p>
+                        <p>Items in your cart are not reserved, so complete your order before they sell out.</p>
+                        <a href="%s" class="button">Return to Your Cart</a>
+                    </div>
+                    <div class="footer">
+                        <p>Thank you for shopping with us!</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """.formatted(firstName != null ? firstName : "there", itemCount, frontendUrl + "/cart");
+    }
+
     /**
      * Send email with template and variables
      */
@@ -0,0 +1,63 @@
+package com.ecommerce.ecommerce.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over cryptographic digests (at least 16 bytes, e.g. SHA-256).
+ * Never reports a false negative; false positives stay near the configured rate up to the expected
+ * number of entries. The bit positions come from the digest itself, so nothing is hashed again.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * ln2));
+    }
+
+    public void add(byte[] digest) {
+        long h1 = first(digest);
+        long h2 = second(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bit(h1, h2, i);
+            words.getAndAccumulate((int) (bit >>> 6), 1L << bit, (word, mask) -> word | mask);
+        }
+    }
+
+    public boolean mightContain(byte[] digest) {
+        long h1 = first(digest);
+        long h2 = second(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bit(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The i-th bit position by double hashing
+     */
+    private long bit(long h1, long h2, int i) {
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    private static long first(byte[] digest) {
+        if (digest.length < 2 * Long.BYTES) {
+            throw new IllegalArgumentException("Digest too short for a Bloom filter: " + digest.length + " bytes");
+        }
+        return ByteBuffer.wrap(digest, 0, Long.BYTES).getLong();
+    }
+
+    private static long second(byte[] digest) {
+        return ByteBuffer.wrap(digest, Long.BYTES, Long.BYTES).getLong();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.ecommerce.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Signed cookie identifying an anonymous visitor's cart.
+ * The value is "&lt;guestId&gt;.&lt;signature&gt;" with an HMAC-SHA256 signature, so a guest id cannot be
+ * guessed or forged to reach someone else's cart; verification needs no storage lookup.
+ * The signing key (app.cart.guest.secret) is required and must not be shared with any other key.
+ */
+@Component
+public class GuestCartCookie {
+
+    public static final String NAME = "guestCart";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration maxAge;
+    private final String cookieDomain;
+
+    public GuestCartCookie(@Value("${app.cart.guest.secret}") String secret,
+                           @Value("${app.cart.guest.ttl:14d}") Duration maxAge,
+                           @Value("${cookie-domain:}") String cookieDomain) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("app.cart.guest.secret must be set");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxAge = maxAge;
+        this.cookieDomain = cookieDomain.isBlank() ? null : cookieDomain;
+    }
+
+    /**
+     * A new, random guest id
+     */
+    public String newGuestId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * The guest id carried by a cookie value, if its signature is valid
+     */
+    public Optional<String> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int separator = token.lastIndexOf('.');
+        if (separator <= 0) {
+            return Optional.empty();
+        }
+        String guestId = token.substring(0, separator);
+        byte[] expected = sign(guestId).getBytes(StandardCharsets.UTF_8);
+        byte[] actual = token.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual) ? Optional.of(guestId) : Optional.empty();
+    }
+
+    /**
+     * Cookie carrying a guest id; re-issued on every guest cart change so it expires with the cart
+     */
+    public ResponseCookie create(String guestId) {
+        return cookie(guestId + "." + sign(guestId), maxAge);
+    }
+
+    public ResponseCookie delete() {
+        return cookie("", Duration.ZERO);
+    }
+
+    private ResponseCookie cookie(String value, Duration age) {
+        return ResponseCookie.from(NAME, value)
+                .path("/")
+                .maxAge(age)
+                .sameSite("None")
+                .httpOnly(true)
+                .secure(true)
+                .domain(cookieDomain)
+                .build();
+    }
+
+    private String sign(String guestId) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(guestId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign guest cart id", e);
+        }
+    }
+}
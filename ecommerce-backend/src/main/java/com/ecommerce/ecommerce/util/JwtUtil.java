@@ -2,7 +2,9 @@ package com.ecommerce.ecommerce.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,10 +12,21 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-import java.util.Objects;
-
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies JWTs.
+ * The signing key and parser are built once, and verified claims are kept per token (by SHA-256,
+ * until the token's exp), so a token sent on every request is parsed and HMAC-checked only once per node.
+ */
 @Component
 public class JwtUtil {
 
@@ -22,15 +35,37 @@ public class JwtUtil {
     @Value("${jwt.secret:mySecretKey}")
     private String jwtSecret;
 
+    @Value("${app.jwt.claims-cache.max-entries:10000}")
+    private int maxCachedTokens;
 
     public static long jwtExpirationMs = 24 * 60 * 60 * 1000L;
     public static long refreshExpirationMs = 30 * 24 * 60 * 60 * 1000L;
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private Key signingKey;
+    private JwtParser parser;
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = getSignInKey();
+        // A built parser is immutable and thread-safe, so every request shares this one
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     private Key getSignInKey() {
         byte[] keyBytes;
         try {
             keyBytes = Decoders.BASE64.decode(jwtSecret);
-        } catch (IllegalArgumentException e) {
-            keyBytes = jwtSecret.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        } catch (DecodingException | IllegalArgumentException e) {
+            // Not base64: use the secret's own bytes
+            keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         }
         if (keyBytes.length < 32) {
             // Pad deterministically to 32 bytes
@@ -50,7 +85,7 @@ public class JwtUtil {
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -65,7 +100,7 @@ public class JwtUtil {
                 .claim("type", "refresh")
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + refreshExpirationMs))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -74,19 +109,18 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSignInKey()).build()
-                   .parseClaimsJws(token).getBody().getSubject();
+        return claims(token).getSubject();
     }
+
     public long getTimeAlive(String token) {
-        long currentTime = new Date().getTime();
-      return Jwts.parserBuilder().setSigningKey(getSignInKey()).build()
-                .parseClaimsJws(token).getBody().getExpiration().getTime() - currentTime;
+        return claims(token).getExpiration().getTime() - System.currentTimeMillis();
     }
+
     public String getUserNameFromJwtToken(String token) {
         return getUsernameFromToken(token);
     }
@@ -96,33 +130,80 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String authToken) {
+        return parseAndValidate(authToken).isPresent();
+    }
+
+    /**
+     * Claims of a token with a valid signature that has not expired; empty (and logged) otherwise
+     */
+    public Optional<Claims> parseAndValidate(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(authToken);
-            return true;
+            return Optional.of(claims(token));
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token is invalid: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-
-        return false;
+        return Optional.empty();
     }
 
     public boolean isRefreshToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder().setSigningKey(getSignInKey()).build()
-                    .parseClaimsJws(token).getBody();
-            return "refresh".equals(claims.get("type", String.class));
-        } catch (Exception e) {
-            return false;
-        }
+        return parseAndValidate(token)
+                .map(claims -> "refresh".equals(claims.get("type", String.class)))
+                .orElse(false);
     }
 
     public long getAccessTokenExpiration() {
         return jwtExpirationMs / 1000; // Return in seconds
     }
+
+    /**
+     * Verified claims of a token, from the cache when this node already verified it.
+     * Throws like the parser when the token is invalid or expired.
+     */
+    private Claims claims(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT string is empty");
+        }
+        String key = HexFormat.of().formatHex(tokenDigest(token));
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(key);
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            remember(key, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private void remember(String key, VerifiedToken token) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            verifiedTokens.values().removeIf(VerifiedToken::isExpired);
+            if (verifiedTokens.size() >= maxCachedTokens) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(key, token);
+    }
+
+    /**
+     * SHA-256 of a token, identifying it without keeping the token itself
+     */
+    public static byte[] tokenDigest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
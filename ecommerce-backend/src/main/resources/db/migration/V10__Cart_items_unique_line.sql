@@ -0,0 +1,22 @@
+-- One row per user, product and variant (a missing variant counts as 0), so cart writes can
+-- upsert with ON CONFLICT instead of check-then-insert. Existing duplicates are merged into
+-- the oldest row first.
+WITH merged AS (
+    SELECT MIN(id) AS keep_id, SUM(quantity) AS quantity
+    FROM cart_items
+    GROUP BY user_id, product_id, COALESCE(product_variant_id, 0)
+    HAVING COUNT(*) > 1
+)
+UPDATE cart_items c
+SET quantity = m.quantity
+FROM merged m
+WHERE c.id = m.keep_id;
+
+DELETE FROM cart_items c
+USING cart_items k
+WHERE k.user_id = c.user_id
+  AND k.product_id = c.product_id
+  AND COALESCE(k.product_variant_id, 0) = COALESCE(c.product_variant_id, 0)
+  AND k.id < c.id;
+
+CREATE UNIQUE INDEX uk_cart_items_line ON cart_items (user_id, product_id, COALESCE(product_variant_id, 0));
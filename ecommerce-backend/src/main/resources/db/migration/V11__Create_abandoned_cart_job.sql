@@ -0,0 +1,19 @@
+-- Progress of restartable scheduled scans: the keyset cursor of the current run is committed
+-- together with each chunk, so a run interrupted by a crash or deploy resumes where it stopped.
+CREATE TABLE job_progress (
+    job_name VARCHAR(100) NOT NULL,
+    cursor_id BIGINT NOT NULL DEFAULT 0,
+    run_cutoff TIMESTAMP,
+    processed BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    CONSTRAINT pk_job_progress PRIMARY KEY (job_name)
+);
+
+-- Last abandoned-cart reminder per user; a cart is only reminded again after it changed
+CREATE TABLE cart_reminders (
+    user_id BIGINT NOT NULL,
+    reminded_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_cart_reminders PRIMARY KEY (user_id),
+    CONSTRAINT fk_cart_reminders_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
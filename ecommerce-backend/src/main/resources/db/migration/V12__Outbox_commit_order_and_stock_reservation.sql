@@ -0,0 +1,14 @@
+-- Outbox ids decide delivery order per aggregate, so they must follow insert order across nodes.
+-- Pooled blocks (INCREMENT 50) handed each node its own range; allocate one id per insert instead.
+-- Every id already handed out is at or below the sequence's current value.
+ALTER SEQUENCE outbox_id_seq INCREMENT BY 1;
+
+-- Whether stock is currently reserved for an order, so a cancellation only releases what was reserved.
+-- Orders placed before reservation moved to the outbox never reserved stock at all, so they start
+-- unreserved; only orders whose ORDER_CREATED event was delivered hold a reservation. (Delivered
+-- events already purged from the outbox leave their order unreserved, which under-releases at worst.)
+ALTER TABLE orders ADD COLUMN stock_reserved BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE orders SET stock_reserved = TRUE
+WHERE id IN (SELECT aggregate_id FROM outbox
+             WHERE aggregate_type = 'ORDER' AND event_type = 'ORDER_CREATED' AND status = 'DONE');
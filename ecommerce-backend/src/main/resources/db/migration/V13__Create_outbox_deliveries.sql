@@ -0,0 +1,8 @@
+-- Handlers that have already handled an outbox event. A retried event skips them, so a failure in
+-- one handler does not repeat the side effects (emails, metrics) of the others.
+CREATE TABLE outbox_deliveries (
+    event_id BIGINT NOT NULL REFERENCES outbox (id) ON DELETE CASCADE,
+    handler VARCHAR(100) NOT NULL,
+    delivered_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (event_id, handler)
+);
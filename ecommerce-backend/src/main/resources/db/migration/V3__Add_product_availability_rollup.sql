@@ -0,0 +1,19 @@
+-- ================= Product availability rollup =================
+-- available_stock: sum of active variant stock, or the product's own stock when it has no active variants
+-- in_stock: available_stock > 0
+ALTER TABLE products
+    ADD COLUMN available_stock INT NOT NULL DEFAULT 0,
+    ADD COLUMN in_stock BOOLEAN NOT NULL DEFAULT false;
+
+UPDATE products p
+SET available_stock = COALESCE(v.total_stock, p.stock_quantity),
+    in_stock = COALESCE(v.total_stock, p.stock_quantity) > 0
+FROM products p2
+         LEFT JOIN (SELECT product_id, SUM(stock_quantity) AS total_stock
+                    FROM product_variants
+                    WHERE is_active = true
+                    GROUP BY product_id) v ON v.product_id = p2.id
+WHERE p.id = p2.id;
+
+CREATE INDEX idx_product_active_in_stock ON products(is_active, in_stock);
+CREATE INDEX idx_product_available_stock ON products(available_stock);
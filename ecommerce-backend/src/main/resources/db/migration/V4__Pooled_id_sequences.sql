@@ -0,0 +1,22 @@
+-- Switch high-volume tables to pooled sequence allocation (allocationSize = 50 in the entities)
+-- so Hibernate can assign ids without an INSERT round trip and batch inserts.
+-- The BIGSERIAL defaults stay in place for raw SQL inserts; each nextval() now reserves a block of 50.
+
+ALTER SEQUENCE addresses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE product_images_id_seq INCREMENT BY 50;
+ALTER SEQUENCE product_variants_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reviews_id_seq INCREMENT BY 50;
+
+-- Realign each sequence past the existing ids so the first pooled block cannot overlap them
+SELECT setval('addresses_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM addresses), 0), 1));
+SELECT setval('cart_items_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM cart_items), 0), 1));
+SELECT setval('orders_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM orders), 0), 1));
+SELECT setval('order_items_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM order_items), 0), 1));
+SELECT setval('products_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM products), 0), 1));
+SELECT setval('product_images_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM product_images), 0), 1));
+SELECT setval('product_variants_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM product_variants), 0), 1));
+SELECT setval('reviews_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM reviews), 0), 1));
@@ -0,0 +1,7 @@
+-- Order history is read newest first per user and paged by (created_at, id) keyset.
+-- The INCLUDE columns let summary rows be served from the index without touching the heap.
+CREATE INDEX idx_order_user_created_id ON orders (user_id, created_at DESC, id DESC)
+    INCLUDE (order_number, status, total_amount, currency);
+
+-- user_id lookups are fully covered by the composite index's leading column
+DROP INDEX IF EXISTS idx_order_user;
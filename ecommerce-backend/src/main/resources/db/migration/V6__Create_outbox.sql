@@ -0,0 +1,24 @@
+-- Transactional outbox: events are written in the same transaction as the order change
+-- and drained asynchronously by OutboxDispatcher.
+CREATE TABLE outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+ALTER SEQUENCE outbox_id_seq INCREMENT BY 50;
+
+-- Dispatcher scan: pending events in id order
+CREATE INDEX idx_outbox_pending ON outbox (id) WHERE status = 'PENDING';
+-- Per-aggregate ordering check: is there an earlier pending event for the same order?
+CREATE INDEX idx_outbox_aggregate_pending ON outbox (aggregate_type, aggregate_id, id) WHERE status = 'PENDING';
+-- Cleanup of processed events
+CREATE INDEX idx_outbox_processed ON outbox (processed_at) WHERE status = 'DONE';
@@ -0,0 +1,159 @@
+-- Convert orders and order_items to monthly range partitions.
+-- orders is partitioned on created_at; order_items carries its order's created_at (order_created_at)
+-- so items live in the same month as their order and the foreign key can reference the
+-- partitioned primary key (id, created_at).
+
+-- 1. Move the existing tables aside, keeping their id sequences alive
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+ALTER SEQUENCE order_items_id_seq OWNED BY NONE;
+ALTER TABLE order_items RENAME TO order_items_legacy;
+ALTER TABLE orders RENAME TO orders_legacy;
+
+-- 2. Partitioned parents
+CREATE TABLE orders (
+    id BIGINT NOT NULL DEFAULT nextval('orders_id_seq'),
+    order_number VARCHAR(50) NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    subtotal DECIMAL(10, 2) NOT NULL,
+    tax_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    shipping_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    discount_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    payment_status VARCHAR(20),
+    payment_method VARCHAR(50),
+    payment_intent_id VARCHAR(100),
+    payment_date TIMESTAMP,
+    shipping_method VARCHAR(100),
+    tracking_number VARCHAR(100),
+    shipped_date TIMESTAMP,
+    delivered_date TIMESTAMP,
+    coupon_code VARCHAR(50),
+    shipping_address_id BIGINT,
+    billing_address_id BIGINT,
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_orders PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE RESTRICT,
+    CONSTRAINT fk_orders_shipping_address FOREIGN KEY (shipping_address_id) REFERENCES addresses(id) ON DELETE SET NULL,
+    CONSTRAINT fk_orders_billing_address FOREIGN KEY (billing_address_id) REFERENCES addresses(id) ON DELETE SET NULL
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL DEFAULT nextval('order_items_id_seq'),
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_variant_id BIGINT,
+    product_name VARCHAR(255),
+    product_sku VARCHAR(100),
+    product_image_url TEXT,
+    variant_name VARCHAR(255),
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    discount_amount DECIMAL(10, 2),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_order_items PRIMARY KEY (id, order_created_at),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id, order_created_at)
+        REFERENCES orders(id, created_at) ON DELETE CASCADE,
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE RESTRICT,
+    CONSTRAINT fk_order_items_variant FOREIGN KEY (product_variant_id) REFERENCES product_variants(id) ON DELETE SET NULL
+) PARTITION BY RANGE (order_created_at);
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+
+-- 3. Partition maintenance: creates monthly partitions for both tables from from_month
+--    for the given number of months. Idempotent, called by OrderPartitionService on a schedule.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, months INT) RETURNS INT AS $$
+DECLARE
+    month_start DATE;
+    created INT := 0;
+    parent TEXT;
+BEGIN
+    FOR i IN 0..months - 1 LOOP
+        month_start := (date_trunc('month', from_month) + make_interval(months => i))::DATE;
+        FOREACH parent IN ARRAY ARRAY['orders', 'order_items'] LOOP
+            IF to_regclass(parent || '_' || to_char(month_start, 'YYYYMM')) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               parent || '_' || to_char(month_start, 'YYYYMM'), parent,
+                               month_start, (month_start + INTERVAL '1 month')::DATE);
+                created := created + 1;
+            END IF;
+        END LOOP;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions covering existing data plus the next three months
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM orders_legacy), CURRENT_TIMESTAMP))::DATE;
+BEGIN
+    PERFORM create_order_partitions(first_month,
+        ((EXTRACT(YEAR FROM CURRENT_DATE) - EXTRACT(YEAR FROM first_month)) * 12
+         + EXTRACT(MONTH FROM CURRENT_DATE) - EXTRACT(MONTH FROM first_month))::INT + 4);
+END $$;
+
+-- Safety net for rows outside the pre-created range; should stay empty
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+-- 4. Copy data
+INSERT INTO orders (id, order_number, user_id, status, subtotal, tax_amount, shipping_amount, discount_amount,
+                    total_amount, currency, payment_status, payment_method, payment_intent_id, payment_date,
+                    shipping_method, tracking_number, shipped_date, delivered_date, coupon_code,
+                    shipping_address_id, billing_address_id, notes, created_at, updated_at)
+SELECT id, order_number, user_id, status, subtotal, tax_amount, shipping_amount, discount_amount,
+       total_amount, currency, payment_status, payment_method, payment_intent_id, payment_date,
+       shipping_method, tracking_number, shipped_date, delivered_date, coupon_code,
+       shipping_address_id, billing_address_id, notes, created_at, updated_at
+FROM orders_legacy;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, product_variant_id, product_name, product_sku,
+                         product_image_url, variant_name, quantity, unit_price, discount_amount, created_at)
+SELECT i.id, i.order_id, o.created_at, i.product_id, i.product_variant_id, i.product_name, i.product_sku,
+       i.product_image_url, i.variant_name, i.quantity, i.unit_price, i.discount_amount, i.created_at
+FROM order_items_legacy i
+JOIN orders_legacy o ON o.id = i.order_id;
+
+DROP TABLE order_items_legacy;
+DROP TABLE orders_legacy;
+
+-- 5. Global order number uniqueness. A unique index on a partitioned table must include the
+--    partition key, which would only make (order_number, created_at) unique, so order numbers are
+--    claimed in a plain table by a trigger in the inserting transaction; a duplicate fails the insert.
+CREATE TABLE order_numbers (
+    order_number VARCHAR(50) PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_order_numbers_order FOREIGN KEY (order_id, created_at)
+        REFERENCES orders(id, created_at) ON DELETE CASCADE
+);
+
+INSERT INTO order_numbers (order_number, order_id, created_at)
+SELECT order_number, id, created_at FROM orders;
+
+CREATE OR REPLACE FUNCTION claim_order_number() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO order_numbers (order_number, order_id, created_at)
+    VALUES (NEW.order_number, NEW.id, NEW.created_at);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_orders_claim_order_number
+    AFTER INSERT ON orders
+    FOR EACH ROW EXECUTE FUNCTION claim_order_number();
+
+-- 6. Indexes, created on the parents and propagated to every partition.
+--    order_number lookups do not know the month, so its index probes each partition.
+CREATE INDEX idx_order_number ON orders (order_number);
+CREATE INDEX idx_order_user_created_id ON orders (user_id, created_at DESC, id DESC)
+    INCLUDE (order_number, status, total_amount, currency);
+CREATE INDEX idx_order_status ON orders (status, created_at);
+CREATE INDEX idx_order_created ON orders (created_at);
+CREATE INDEX idx_order_item_order ON order_items (order_id, order_created_at);
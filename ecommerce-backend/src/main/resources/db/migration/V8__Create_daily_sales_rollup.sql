@@ -0,0 +1,22 @@
+-- Daily sales rollup per order status, maintained incrementally by DailySalesService
+-- whenever an order is created or changes status.
+CREATE TABLE daily_sales (
+    sales_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    items_sold BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_daily_sales PRIMARY KEY (sales_date, status)
+);
+
+-- Backfill from existing orders
+INSERT INTO daily_sales (sales_date, status, order_count, revenue, items_sold)
+SELECT CAST(o.created_at AS DATE), o.status, COUNT(*), COALESCE(SUM(o.total_amount), 0), COALESCE(SUM(i.items), 0)
+FROM orders o
+LEFT JOIN (
+    SELECT order_id, order_created_at, SUM(quantity) AS items
+    FROM order_items
+    GROUP BY order_id, order_created_at
+) i ON i.order_id = o.id AND i.order_created_at = o.created_at
+GROUP BY CAST(o.created_at AS DATE), o.status;
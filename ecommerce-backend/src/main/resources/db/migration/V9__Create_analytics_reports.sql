@@ -0,0 +1,9 @@
+-- Precomputed analytics reports (e.g. cohort retention), stored as JSON and rebuilt on a schedule
+-- by the owning service so admin pages never run the underlying scans on request.
+CREATE TABLE analytics_reports (
+    name VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    generated_at TIMESTAMP NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    CONSTRAINT pk_analytics_reports PRIMARY KEY (name)
+);
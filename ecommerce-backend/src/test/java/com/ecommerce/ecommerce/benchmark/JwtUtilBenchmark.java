@@ -0,0 +1,85 @@
+package com.ecommerce.ecommerce.benchmark;
+
+import com.ecommerce.ecommerce.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying a request's token: a token this node already verified (served from the claims
+ * cache) against a fresh token each time (parsed and HMAC-checked)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtil(10_000);
+        // A one-entry cache that every new token clears, so each parse misses
+        uncached = jwtUtil(1);
+        token = cached.generateTokenFromUsername("benchmark");
+        cached.parseAndValidate(token);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = uncached.generateTokenFromUsername("user" + i);
+        }
+    }
+
+    @Benchmark
+    public Optional<Claims> cachedToken() {
+        return cached.parseAndValidate(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<Claims> cachedTokenContended() {
+        return cached.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> uncachedToken() {
+        next = (next + 1) % TOKENS;
+        return uncached.parseAndValidate(tokens[next]);
+    }
+
+    private static JwtUtil jwtUtil(int maxCachedTokens) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=");
+        ReflectionTestUtils.setField(jwtUtil, "maxCachedTokens", maxCachedTokens);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
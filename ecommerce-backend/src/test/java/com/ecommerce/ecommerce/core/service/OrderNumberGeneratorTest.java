@@ -0,0 +1,93 @@
+package com.ecommerce.ecommerce.core.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 50_000;
+
+    @Test
+    void numbersAreUniqueAcrossThreads() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7, new MockEnvironment());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<String>>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(() -> {
+                start.await();
+                List<String> numbers = new ArrayList<>(PER_THREAD);
+                for (int n = 0; n < PER_THREAD; n++) {
+                    numbers.add(generator.nextOrderNumber());
+                }
+                return numbers;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (Callable<List<String>> worker : workers) {
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                unique.addAll(result.get());
+            }
+            Assertions.assertEquals(THREADS * PER_THREAD, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void idsFromOneThreadIncrease() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(0, new MockEnvironment());
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            Assertions.assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        OrderNumberGenerator first = new OrderNumberGenerator(1, new MockEnvironment());
+        OrderNumberGenerator second = new OrderNumberGenerator(2, new MockEnvironment());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertTrue(ids.add(first.nextId()));
+            Assertions.assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void nodeIdIsRequiredOutsideDev() {
+        MockEnvironment production = new MockEnvironment();
+        production.setActiveProfiles("prod");
+        Assertions.assertThrows(IllegalStateException.class, () -> new OrderNumberGenerator(-1, production));
+
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        Assertions.assertDoesNotThrow(() -> new OrderNumberGenerator(-1, dev));
+    }
+
+    @Test
+    void nodeIdMustFitItsBits() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OrderNumberGenerator(1024, new MockEnvironment()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.ecommerce.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+class JwtUtilTest {
+
+    private static final byte[] KEY_BYTES = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final String SECRET = Base64.getEncoder().encodeToString(KEY_BYTES);
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(SECRET, 100);
+    }
+
+    @Test
+    void validTokenIsVerifiedOnceThenServedFromCache() {
+        String token = jwtUtil.generateTokenFromUsername("alice");
+
+        Optional<Claims> first = jwtUtil.parseAndValidate(token);
+        Optional<Claims> second = jwtUtil.parseAndValidate(token);
+
+        Assertions.assertTrue(first.isPresent());
+        Assertions.assertEquals("alice", first.get().getSubject());
+        Assertions.assertSame(first.get(), second.orElseThrow());
+    }
+
+    @Test
+    void tokenExpiringWhileCachedIsRejected() throws InterruptedException {
+        long expiresAt = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = token(Keys.hmacShaKeyFor(KEY_BYTES), "alice", new Date(expiresAt));
+        Assertions.assertTrue(jwtUtil.parseAndValidate(token).isPresent());
+
+        Thread.sleep(expiresAt - System.currentTimeMillis() + 100);
+
+        Assertions.assertTrue(jwtUtil.parseAndValidate(token).isEmpty());
+        Assertions.assertFalse(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        Key otherKey = Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes());
+        String forged = token(otherKey, "alice", new Date(System.currentTimeMillis() + 60_000));
+
+        Assertions.assertTrue(jwtUtil.parseAndValidate(forged).isEmpty());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+        String token = jwtUtil.generateTokenFromUsername("alice");
+        Assertions.assertTrue(jwtUtil.parseAndValidate(token).isPresent());
+
+        String[] parts = token.split("\\.");
+        String otherPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"exp\":4102444800}".getBytes());
+        String tampered = parts[0] + "." + otherPayload + "." + parts[2];
+
+        Assertions.assertTrue(jwtUtil.parseAndValidate(tampered).isEmpty());
+        Assertions.assertEquals("alice", jwtUtil.getUsernameFromToken(token));
+    }
+
+    @Test
+    void malformedOrEmptyTokensAreRejected() {
+        Assertions.assertTrue(jwtUtil.parseAndValidate("not-a-jwt").isEmpty());
+        Assertions.assertTrue(jwtUtil.parseAndValidate("").isEmpty());
+        Assertions.assertTrue(jwtUtil.parseAndValidate(null).isEmpty());
+    }
+
+    @Test
+    void fullCacheStillVerifiesTokens() {
+        JwtUtil small = jwtUtil(SECRET, 2);
+        for (int i = 0; i < 5; i++) {
+            String token = small.generateTokenFromUsername("user" + i);
+            Assertions.assertEquals("user" + i, small.parseAndValidate(token).orElseThrow().getSubject());
+        }
+    }
+
+    @Test
+    void refreshTokensAreRecognised() {
+        String refresh = jwtUtil.generateRefreshToken(User.withUsername("alice").password("x").build());
+
+        Assertions.assertTrue(jwtUtil.isRefreshToken(refresh));
+        Assertions.assertFalse(jwtUtil.isRefreshToken(jwtUtil.generateTokenFromUsername("alice")));
+    }
+
+    @Test
+    void plainTextSecretIsAccepted() {
+        JwtUtil plain = jwtUtil("not base64: a plain-text secret!", 100);
+
+        Assertions.assertEquals("alice", plain.getUsernameFromToken(plain.generateTokenFromUsername("alice")));
+    }
+
+    private static JwtUtil jwtUtil(String secret, int maxCachedTokens) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "maxCachedTokens", maxCachedTokens);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static String token(Key key, String subject, Date expiration) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(expiration)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}